@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.DocumentHandler;
+import com.github.fastxml.FastXmlBatch;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * traverse a batch of small documents by FastXmlBatch, compared with a new parser for each document
+ * Created by weager on 2017/01/07.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchBenchmark {
+
+    @Param({"order.xml", "book.xml"})
+    public String document;
+
+    @Param({"10000"})
+    public int documents;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    private List<byte[]> sources;
+    private ExecutorService executor;
+    private FastXmlBatch batch;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] doc = Documents.load(document);
+        sources = new ArrayList<byte[]>(documents);
+        for (int i = 0; i < documents; i++) {
+            sources.add(doc.clone());
+        }
+        executor = Executors.newFixedThreadPool(threads);
+        batch = FastXmlFactory.newBatch(executor, threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public long sequential() throws ParseException {
+        long sum = 0;
+        for (byte[] doc : sources) {
+            sum += TraverseBenchmark.traverse(FastXmlFactory.newInstance(doc));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long batch() throws ParseException {
+        final AtomicLong sum = new AtomicLong();
+        batch.run(sources, new DocumentHandler() {
+            public void handle(int documentIndex, FastXmlParser parser) throws ParseException {
+                sum.addAndGet(TraverseBenchmark.traverse(parser));
+            }
+        });
+        return sum.get();
+    }
+}
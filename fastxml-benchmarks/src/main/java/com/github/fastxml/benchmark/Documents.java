@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * documents for benchmarks, loaded from classpath or generated with specific size
+ * Created by weager on 2016/12/27.
+ */
+public final class Documents {
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Documents() {
+    }
+
+    /**
+     * load a document by name
+     *
+     * @param name file name in classpath such as "book.xml", or size of synthetic document such as "1MB", "128MB"
+     * @return document bytes
+     * @throws IOException
+     */
+    public static byte[] load(String name) throws IOException {
+        if (name.endsWith("MB")) {
+            return generate(Integer.parseInt(name.substring(0, name.length() - 2)) << 20);
+        }
+        InputStream is = Documents.class.getClassLoader().getResourceAsStream(name);
+        if (is == null) {
+            throw new IOException("document not found in classpath: " + name);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = is.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * generate an order document, which contains attributes, numbers, entity references, CDATA and non-ASCII text
+     *
+     * @param size minimum size of document in bytes
+     * @return document bytes
+     */
+    public static byte[] generate(int size) {
+        byte[] head = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<order id=\"20161227\">\n".getBytes(UTF_8);
+        byte[] tail = "</order>\n".getBytes(UTF_8);
+        byte[] doc = new byte[size + 1024];
+        System.arraycopy(head, 0, doc, 0, head.length);
+        int length = head.length;
+        StringBuilder sb = new StringBuilder(512);
+        for (int i = 0; length < size; i++) {
+            sb.setLength(0);
+            sb.append("  <item id=\"").append(i).append("\" sku=\"SKU-").append(100000 + i).append("\" available=\"true\">\n")
+                    .append("    <name>Item ").append(i).append(" &amp; accessories</name>\n")
+                    .append("    <description><![CDATA[<b>").append(i).append("</b> in stock]]> 汤姆克鲁兹 côté</description>\n")
+                    .append("    <quantity>").append(i % 1000).append("</quantity>\n")
+                    .append("    <price>").append(i % 10000).append('.').append(i % 100).append("</price>\n")
+                    .append("    <timestamp>").append(1482796800000L + i).append("</timestamp>\n")
+                    .append("  </item>\n");
+            byte[] item = sb.toString().getBytes(UTF_8);
+            if (length + item.length > doc.length - tail.length) {
+                doc = Arrays.copyOf(doc, doc.length + (doc.length >> 1));
+            }
+            System.arraycopy(item, 0, doc, length, item.length);
+            length += item.length;
+        }
+        System.arraycopy(tail, 0, doc, length, tail.length);
+        length += tail.length;
+        return length == doc.length ? doc : Arrays.copyOf(doc, length);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlIndex;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * build FastXmlIndex compared with traversing, and read the text of first grandchildren by cursor compared with parser
+ * Created by weager on 2017/01/04.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IndexBenchmark {
+
+    @Param({"bioinfo.xml", "order.xml", "1MB", "128MB"})
+    public String document;
+
+    private byte[] doc;
+    private FastXmlIndex index;
+
+    @Setup
+    public void setup() throws IOException, ParseException {
+        doc = Documents.load(document);
+        index = FastXmlIndex.build(doc);
+    }
+
+    @Benchmark
+    public int buildIndex() throws ParseException {
+        return FastXmlIndex.build(doc).size();
+    }
+
+    @Benchmark
+    public long traverse() throws ParseException {
+        return TraverseBenchmark.traverse(FastXmlFactory.newInstance(doc));
+    }
+
+    @Benchmark
+    public long queryByCursor() throws ParseException {
+        FastXmlIndex.Cursor cursor = index.cursor();
+        long length = 0;
+        for (boolean found = cursor.toFirstChild(); found; found = cursor.toNextSibling()) {
+            if (cursor.toFirstChild()) {
+                String text = cursor.getText();
+                length += text == null ? 0 : text.length();
+                cursor.toParent();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long queryByParser() throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        long length = 0;
+        boolean first = false; // the first child of an element at depth 2
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.START_TAG) {
+                if (parser.getDepth() == 2) {
+                    first = true;
+                } else if (parser.getDepth() == 3) {
+                    if (first && parser.getNextEvent() != FastXmlParser.END_TAG_WITHOUT_TEXT) {
+                        while ((event = parser.next()) != FastXmlParser.TEXT && event != FastXmlParser.END_TAG) {
+                            // skip attributes
+                        }
+                        if (event == FastXmlParser.TEXT) {
+                            String text = parser.getStringWithDecoding();
+                            length += text == null ? 0 : text.length();
+                            parser.next(); // end tag of this element
+                        }
+                    } else if (parser.getNextEvent() != FastXmlParser.END_TAG_WITHOUT_TEXT) {
+                        parser.skipCurrentTag();
+                    }
+                    first = false;
+                }
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.NameSet;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * find out which of the expected names is the current tag name: isMatch() one by one vs match(NameSet)
+ * Created by weager on 2017/01/02.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MatchBenchmark {
+
+    @Param({"10", "40"})
+    public int names;
+
+    private byte[][] nameBytes;
+    private NameSet nameSet;
+    private byte[] doc;
+
+    @Setup
+    public void setup() {
+        String[] expected = new String[names];
+        nameBytes = new byte[names][];
+        for (int i = 0; i < names; i++) {
+            expected[i] = "orderField" + i;
+            nameBytes[i] = expected[i].getBytes();
+        }
+        nameSet = new NameSet(expected);
+
+        // 100k elements, most of them are expected names
+        Random random = new Random(20170102);
+        StringBuilder sb = new StringBuilder("<orders>");
+        for (int i = 0; i < 100000; i++) {
+            int field = random.nextInt(names + names / 10 + 1);
+            sb.append("<orderField").append(field).append(">1</orderField").append(field).append('>');
+        }
+        sb.append("</orders>");
+        doc = sb.toString().getBytes();
+    }
+
+    @Benchmark
+    public long isMatch() throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        final byte[][] expected = nameBytes;
+        long sum = 0;
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.START_TAG) {
+                for (int i = 0; i < expected.length; i++) {
+                    if (parser.isMatch(expected[i])) {
+                        sum += i;
+                        break;
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long matchNameSet() throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        long sum = 0;
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.START_TAG) {
+                int index = parser.match(nameSet);
+                if (index != NameSet.NOT_FOUND) {
+                    sum += index;
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.exception.NumberFormatException;
+import com.github.fastxml.util.ParseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * convert bytes to numbers by ParseUtils, compared with converting them by String and JDK
+ * Created by weager on 2016/12/27.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberBenchmark {
+    private final static Charset US_ASCII = Charset.forName("US-ASCII");
+
+    @State(Scope.Benchmark)
+    public static class IntValue {
+        @Param({"7", "123456", "-2147483648"})
+        public String value;
+        public byte[] bytes;
+
+        @Setup
+        public void setup() {
+            bytes = value.getBytes(US_ASCII);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LongValue {
+        @Param({"1482796800000", "-9223372036854775808"})
+        public String value;
+        public byte[] bytes;
+
+        @Setup
+        public void setup() {
+            bytes = value.getBytes(US_ASCII);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DoubleValue {
+        @Param({"12.34", "3.141592653589793", "-1.2345E-10"})
+        public String value;
+        public byte[] bytes;
+
+        @Setup
+        public void setup() {
+            bytes = value.getBytes(US_ASCII);
+        }
+    }
+
+    @Benchmark
+    public int parseInt(IntValue value) throws NumberFormatException {
+        return ParseUtils.parseInt(value.bytes, 0, value.bytes.length);
+    }
+
+    @Benchmark
+    public int jdkParseInt(IntValue value) {
+        return Integer.parseInt(new String(value.bytes, US_ASCII));
+    }
+
+    @Benchmark
+    public long parseLong(LongValue value) throws NumberFormatException {
+        return ParseUtils.parseLong(value.bytes, 0, value.bytes.length);
+    }
+
+    @Benchmark
+    public long jdkParseLong(LongValue value) {
+        return Long.parseLong(new String(value.bytes, US_ASCII));
+    }
+
+    @Benchmark
+    public double parseDouble(DoubleValue value) throws NumberFormatException {
+        return ParseUtils.parseDouble(value.bytes, 0, value.bytes.length);
+    }
+
+    @Benchmark
+    public double jdkParseDouble(DoubleValue value) {
+        return Double.parseDouble(new String(value.bytes, US_ASCII));
+    }
+}
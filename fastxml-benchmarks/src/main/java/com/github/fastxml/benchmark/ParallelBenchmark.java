@@ -0,0 +1,106 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParallel;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlPipeline;
+import com.github.fastxml.RecordHandler;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * traverse all "item" records of a synthetic document by FastXmlParallel and FastXmlPipeline, compared with one byte array parser
+ * Created by weager on 2017/01/05.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParallelBenchmark {
+
+    @Param({"16MB", "128MB"})
+    public String document;
+
+    @Param({"2", "4", "8"})
+    public int threads;
+
+    private byte[] doc;
+    private ExecutorService executor;
+    private FastXmlParallel parallel;
+    private FastXmlPipeline pipeline;
+
+    @Setup
+    public void setup() throws Exception {
+        doc = Documents.load(document);
+        executor = Executors.newFixedThreadPool(threads);
+        parallel = new FastXmlParallel(executor, threads);
+        pipeline = new FastXmlPipeline(executor, threads, 64);
+        pipeline.setRecordName("item");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public long sequential() throws ParseException {
+        return TraverseBenchmark.traverse(FastXmlFactory.newInstance(doc));
+    }
+
+    @Benchmark
+    public long parallel() throws ParseException {
+        final AtomicLong sum = new AtomicLong();
+        parallel.parseRecords(doc, null, "item", new RecordHandler() {
+            public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                sum.addAndGet(TraverseBenchmark.traverse(parser));
+            }
+        });
+        return sum.get();
+    }
+
+    @Benchmark
+    public long pipeline() throws ParseException {
+        final AtomicLong sum = new AtomicLong();
+        pipeline.run(new ByteArrayInputStream(doc), null, new RecordHandler() {
+            public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                sum.addAndGet(TraverseBenchmark.traverse(parser));
+            }
+        });
+        return sum.get();
+    }
+}
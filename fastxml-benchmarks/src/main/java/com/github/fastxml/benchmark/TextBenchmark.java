@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * read every text and attribute value by getString(), getStringWithDecoding() and getCharSequence()
+ * Created by weager on 2016/12/27.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TextBenchmark {
+
+    @Param({"bioinfo.xml", "soap.xml", "1MB", "128MB"})
+    public String document;
+
+    private byte[] doc;
+
+    @Setup
+    public void setup() throws IOException {
+        doc = Documents.load(document);
+    }
+
+    @Benchmark
+    public void getString(Blackhole blackhole) throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.TEXT || event == FastXmlParser.ATTRIBUTE_VALUE) {
+                blackhole.consume(parser.getString());
+            }
+        }
+    }
+
+    @Benchmark
+    public void getStringWithDecoding(Blackhole blackhole) throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.TEXT || event == FastXmlParser.ATTRIBUTE_VALUE) {
+                blackhole.consume(parser.getStringWithDecoding());
+            }
+        }
+    }
+
+    @Benchmark
+    public void getCharSequence(Blackhole blackhole) throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.TEXT || event == FastXmlParser.ATTRIBUTE_VALUE) {
+                blackhole.consume(parser.getCharSequence().length());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.benchmark;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParser4Async;
+import com.github.fastxml.FastXmlParserPool;
+import com.github.fastxml.exception.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * traverse all events of document, with byte array parser, input stream parser, and async parser fed by 4KB pieces
+ * Created by weager on 2016/12/27.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TraverseBenchmark {
+
+    @Param({"book.xml", "bioinfo.xml", "order.xml", "soap.xml", "nav.xml", "form.xml", "1MB", "128MB"})
+    public String document;
+
+    private final static int FEED_SIZE = 4096;
+
+    private byte[] doc;
+    private FastXmlParserPool pool;
+
+    @Setup
+    public void setup() throws IOException {
+        doc = Documents.load(document);
+        pool = FastXmlFactory.newPool();
+    }
+
+    @Benchmark
+    public long byteArray() throws ParseException {
+        return traverse(FastXmlFactory.newInstance(doc));
+    }
+
+    @Benchmark
+    public long inputStream() throws ParseException {
+        return traverse(FastXmlFactory.newInstance(new ByteArrayInputStream(doc)));
+    }
+
+    @Benchmark
+    public long inputStreamPooled() throws ParseException {
+        FastXmlParser parser = pool.borrow(new ByteArrayInputStream(doc), null);
+        try {
+            return traverse(parser);
+        } finally {
+            pool.release(parser);
+        }
+    }
+
+    @Benchmark
+    public long async() throws ParseException {
+        FastXmlParser4Async parser = FastXmlFactory.newAsyncInstance(null);
+        long sum = 0;
+        int offset = 0;
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.INCOMPLETE) {
+                if (offset < doc.length) {
+                    int length = Math.min(FEED_SIZE, doc.length - offset);
+                    parser.feed(doc, offset, length);
+                    offset += length;
+                } else {
+                    parser.endOfInput();
+                }
+            } else {
+                sum += parser.getCurrentBytesLength();
+            }
+        }
+        return sum;
+    }
+
+    static long traverse(FastXmlParser parser) throws ParseException {
+        long sum = 0;
+        while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            sum += parser.getCurrentBytesLength();
+        }
+        return sum;
+    }
+}
@@ -15,18 +15,45 @@
  */
 package com.github.fastxml;
 
+import com.github.fastxml.exception.BufferLimitException;
+import com.github.fastxml.exception.NumberFormatException;
+import com.github.fastxml.exception.ParseException;
+import com.github.fastxml.util.BinaryDecoder;
+import com.github.fastxml.util.ByteUtils;
+import com.github.fastxml.util.FastCharSequence;
+import com.github.fastxml.util.FastStringBuilder;
+import com.github.fastxml.util.ParseUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 
 /**
+ * The state machine of FastXml, it's shared by all parsers.
+ * Bytes are always scanned in docBytes, which contains the whole document or is used as a buffer of a byte source.
  * Created by weager on 2016/06/07.
  */
 public abstract class AbstractFastXmlParser implements FastXmlParser {
     /**
      * when use API: setInput(byte[] bytes), save whole xml file bytes.
-     * when use API: setInput(InputStream in), temporarily save some bytes from input stream, and this docBytes will be used as a buffer
+     * when use API: setInput(InputStream in), temporarily save some bytes from input stream, and this docBytes will be used as a buffer.
+     * As a buffer, docBytes is a sliding window over the input: blocks of bytes are read into the free space at the end of it,
+     * and bytes before current token are discarded only when the free space is running out.
+     * The current token is pinned in the window, so currentIndex and currentBytesLength stay valid until next() is called.
      */
     protected byte[] docBytes;
 
+    /**
+     * index of the first byte of document in docBytes
+     */
+    protected int docBytesOffset;
+
     /**
      * offset of document bytes, when traverse document bytes
      */
@@ -53,6 +80,48 @@ public abstract class AbstractFastXmlParser implements FastXmlParser {
      */
     protected boolean currentHasEntityReference;
 
+    /**
+     * mark current text or attribute value contains only ASCII bytes, so it need not to be decoded
+     */
+    protected boolean currentAscii;
+    /**
+     * whether ASCII bytes need not to be decoded in asciiCheckedCharset
+     */
+    private Charset asciiCheckedCharset;
+    private boolean asciiCompatible;
+
+    /**
+     * reusable holder of decoded text, created when text is decoded at the first time
+     */
+    private FastCharSequence text;
+
+    /**
+     * mark current token has been decoded into text
+     */
+    private boolean currentTextDecoded;
+
+    /**
+     * current text chunk is a part of the content of a CDATA block without markers,
+     * so entity references and markers in it are plain text
+     */
+    private boolean currentInCDATA;
+
+    /**
+     * current text chunk continues the text of previous chunk
+     */
+    private boolean currentTextContinued;
+
+    /**
+     * hash of current tag name or attribute name, which is computed while scanning the name
+     */
+    private int currentNameHash;
+    private boolean currentNameHashed;
+
+    /**
+     * symbol table of names, created when a name is got at the first time if it's not set
+     */
+    private NameTable nameTable;
+
     /**
      * current event that has already checked
      */
@@ -69,7 +138,8 @@ public abstract class AbstractFastXmlParser implements FastXmlParser {
     protected int currentDepth;
 
     /**
-     * byte length of the document
+     * end index(exclusive) of the document in docBytes.
+     * when use API: setInput(InputStream in), it's the end index of bytes which have been read into buffer
      */
     protected int docBytesLength;
 
@@ -79,6 +149,1536 @@ public abstract class AbstractFastXmlParser implements FastXmlParser {
     protected Charset charset;
     protected final static Charset DEFAULT_CHARSET = Charset.defaultCharset();
 
+    /**
+     * patterns for scanning text, attribute value and skipped tags 8 bytes at a time
+     */
+    private final static long LT_WORD = ByteUtils.repeat((byte) '<');
+    private final static long AMP_WORD = ByteUtils.repeat((byte) '&');
+    private final static long RSQB_WORD = ByteUtils.repeat((byte) ']');
+    private final static long DOUBLE_QUOTE_WORD = ByteUtils.repeat((byte) '\"');
+    private final static long SINGLE_QUOTE_WORD = ByteUtils.repeat((byte) '\'');
+    private final static long GT_WORD = ByteUtils.repeat((byte) '>');
+    private final static long QUESTION_MARK_WORD = ByteUtils.repeat((byte) '?');
+
+    /**
+     * little endian view of docBytes for reading 8 bytes at a time, wrapped again when docBytes is changed
+     */
+    private ByteBuffer words;
+    private byte[] wordsBytes;
+
+    /**
+     * reusable decoder and output block of base64 and hex text, created when binary text is decoded at the first time
+     */
+    private BinaryDecoder binaryDecoder;
+    private byte[] binaryScratch;
+    private final static int BINARY_BLOCK_SIZE = 4096;
+
+    /**
+     * deliver a long text by several TEXT events, so that buffer will not grow for it, see setTextChunked()
+     */
+    private boolean textChunked;
+    /**
+     * state of the rest text after current chunk
+     */
+    private int textChunkState;
+    private final static int CHUNK_NONE = 0; // no more text
+    private final static int CHUNK_TEXT = 1; // more text
+    private final static int CHUNK_CDATA = 2; // more text, which begins in the content of a CDATA block
+    /**
+     * decoder for finding out char boundary of text chunk in multi-byte charsets, created when it's needed at the first time
+     */
+    private CharsetDecoder chunkDecoder;
+    private CharBuffer chunkChars;
+    /**
+     * max count of bytes read ahead of cursor while scanning text, such as "<![CDATA["
+     */
+    private final static int MAX_LOOKAHEAD = 16;
+    /**
+     * max length of an entity reference, such as "&#x10FFFF;"
+     */
+    private final static int MAX_ENTITY_REFERENCE_LENGTH = 16;
+    /**
+     * keep the bytes of skipped tag in buffer, for copyCurrentTag()
+     */
+    private boolean keepSkippedBytes;
+
+    /**
+     * source of the bytes which have not been read into docBytes, null if the whole document is in docBytes
+     */
+    private ByteSource source;
+    /**
+     * true if all bytes of input have been read into docBytes
+     */
+    private boolean endOfInput;
+    /**
+     * buffer owned by parser for reading bytes from source, it will be reused by the next document after setInput() or reset()
+     */
+    private byte[] buffer;
+    /**
+     * default buffer size for initialing buffer
+     */
+    public final static int DEFAULT_BUFFER_SIZE = 8192;
+    /**
+     * sizes and growth of buffer
+     */
+    private BufferPolicy bufferPolicy = BufferPolicy.DEFAULT;
+    /**
+     * max size of buffer used by current document
+     */
+    private int peakBufferSize;
+    /**
+     * buffer will be compacted only when the free space is less than 1/COMPACT_FREE_SPACE_RATIO of buffer
+     */
+    private final static int COMPACT_FREE_SPACE_RATIO = 8;
+    /**
+     * buffer will be compacted only when at least 1/COMPACT_DISCARD_RATIO of buffer can be discarded,
+     * so that the cost of copying is amortized by the bytes that have been parsed
+     */
+    private final static int COMPACT_DISCARD_RATIO = 2;
+    /**
+     * index of bytes which are pinned by mark(), together with the bytes from currentIndex, -1 if not marked
+     */
+    private int markIndex = -1;
+    /**
+     * state saved by mark(), indexes are saved as offsets from markIndex
+     */
+    private int markCursor;
+    private int markCurrentIndex;
+    private int markBytesLength;
+    private int markEvent;
+    private int markNextEvent;
+    private int markDepth;
+    private int markFlags;
+    private int markNameHash;
+    private int markTextChunkState;
+    private Charset markCharset;
+    /**
+     * state of scanning text when the bytes of non-blocking source run out, so that the scanned bytes of text are not
+     * scanned again after more bytes are available. Indexes are saved as offsets from markIndex, -1 if not saved
+     */
+    private int textResumeCursor = -1;
+    private int textResumeIndex;
+    private int textResumeCdataBegin;
+    private int textResumeCdataEnd;
+    private long textResumeScanned;
+    private int textResumeFlags;
+    /**
+     * count of new lines in the bytes which have been discarded from buffer
+     */
+    private int discardedRows;
+    /**
+     * column of the last byte which has been discarded from buffer
+     */
+    private int discardedColumn;
+
+    /**
+     * Set the whole document bytes as input, the bytes will be parsed in place without copying.
+     *
+     * @param bytes   byte array contains the whole document
+     * @param offset  index of the first byte of document
+     * @param length  byte length of document
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     */
+    protected void setInputBytes(byte[] bytes, int offset, int length, Charset charset) {
+        this.source = null;
+        this.endOfInput = true;
+        this.docBytes = bytes;
+        this.docBytesOffset = offset;
+        this.docBytesLength = offset + length;
+        this.peakBufferSize = 0;
+        resetState(charset);
+    }
+
+    /**
+     * Set a byte source as input, docBytes will be used as a buffer and bytes will be read from the source block by block.
+     *
+     * @param source     byte source
+     * @param bufferSize size of buffer
+     * @param charset    if param charset is null, then encoding in document will be used;
+     *                   if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    void setInputSource(ByteSource source, int bufferSize, Charset charset) throws ParseException {
+        bufferSize = Math.min(Math.max(bufferSize, BufferPolicy.MIN_BUFFER_SIZE), bufferPolicy.getMaxSize());
+        this.source = source;
+        this.endOfInput = false;
+        // buffer grown for previous document is kept, unless it's larger than retained size of buffer policy
+        if (buffer == null || buffer.length < bufferSize || buffer.length > Math.max(bufferSize, bufferPolicy.getRetainedSize())) {
+            buffer = new byte[bufferSize];
+        }
+        this.peakBufferSize = buffer.length;
+        this.docBytes = buffer;
+        this.docBytesOffset = 0;
+        this.docBytesLength = 0;
+        resetState(charset);
+        if (!source.isNonBlocking() && !fill()) { // prefetch the first block for parser
+            throw ParseException.emptyDocument();
+        }
+    }
+
+    /**
+     * Reset the parser for reusing, the input document will be released.
+     * The buffer which has grown for previous documents will be kept for next document,
+     * unless it's larger than maxBufferSize, so that a huge document will not hold memory forever.
+     * A parser can also be reused by calling setInput() directly, which keeps the buffer too.
+     *
+     * @param maxBufferSize max size of buffer to be kept
+     */
+    public void reset(int maxBufferSize) {
+        if (source != null) {
+            try {
+                source.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            source = null;
+        }
+        if (buffer != null && buffer.length > maxBufferSize) {
+            buffer = null;
+        }
+        if (binaryScratch != null && binaryScratch.length > maxBufferSize) {
+            binaryScratch = null;
+        }
+        if (text != null) {
+            text.clear();
+        }
+        this.words = null;
+        this.wordsBytes = null;
+        this.endOfInput = true;
+        this.docBytes = null;
+        this.docBytesOffset = 0;
+        this.docBytesLength = 0;
+        this.peakBufferSize = 0;
+        this.markIndex = -1;
+        resetState(null);
+        this.nextEvent = END_DOCUMENT;
+    }
+
+    /**
+     * Reset the parser for reusing, the input document will be released,
+     * and buffer will be kept for next document unless it's larger than retained size of buffer policy.
+     */
+    public void reset() {
+        reset(bufferPolicy.getRetainedSize());
+    }
+
+    /**
+     * Set the buffer policy for parsing input stream or file, it takes effect from next setInput().
+     *
+     * @param bufferPolicy buffer policy
+     */
+    public void setBufferPolicy(BufferPolicy bufferPolicy) {
+        if (bufferPolicy == null) {
+            throw new IllegalArgumentException("buffer policy should not be null");
+        }
+        this.bufferPolicy = bufferPolicy;
+    }
+
+    public BufferPolicy getBufferPolicy() {
+        return bufferPolicy;
+    }
+
+    /**
+     * max size of buffer used by current document, it can be used to find out the documents which need large buffer.
+     *
+     * @return size of buffer, or 0 if the document is parsed in place without buffer
+     */
+    public int getPeakBufferSize() {
+        return peakBufferSize;
+    }
+
+    /**
+     * reset parsing state for a new document
+     *
+     * @param charset charset specified by user, may be null
+     */
+    private void resetState(Charset charset) {
+        this.charset = charset;
+        this.cursor = docBytesOffset;
+        this.currentIndex = docBytesOffset;
+        this.currentBytesLength = 0;
+        this.currentEvent = END_DOCUMENT;
+        this.nextEvent = START_DOCUMENT;
+        this.currentDepth = 0;
+        this.discardedRows = 0;
+        this.discardedColumn = 0;
+        this.currentTextDecoded = false;
+        this.currentInCDATA = false;
+        this.currentTextContinued = false;
+        this.textChunkState = CHUNK_NONE;
+        this.textResumeCursor = -1;
+    }
+
+    /**
+     * Deliver a long text by several TEXT events instead of growing buffer, it only takes effect on input stream and other byte sources.
+     * A chunk is at most half of buffer, it never ends inside a char, an entity reference or a CDATA marker,
+     * and each chunk can be decoded by getStringWithDecoding(), getCharSequence(), readBase64() etc. independently.
+     * Use hasMoreText() to check whether the text is continued by next chunk.
+     *
+     * @param textChunked true to deliver long text in chunks
+     */
+    public void setTextChunked(boolean textChunked) {
+        this.textChunked = textChunked;
+    }
+
+    public boolean hasMoreText() {
+        return currentEvent == TEXT && textChunkState != CHUNK_NONE;
+    }
+
+    public int next() throws ParseException {
+        try {
+            currentEvent = nextEvent;
+            currentInDoubleQuote = false;
+            currentHasEntityReference = false;
+            currentAscii = false;
+            currentTextDecoded = false;
+            currentInCDATA = false;
+            currentTextContinued = false;
+            currentNameHashed = false;
+
+            if (currentEvent != END_TAG_WITHOUT_TEXT) {
+                resetCurrent();
+            }
+            switch (currentEvent) {
+                case START_DOCUMENT:
+                    nextEvent = processStartDocument();
+                    break;
+                case END_DOCUMENT:
+                    nextEvent = -1;
+                    break;
+                case START_TAG:
+                    currentDepth++;
+                    nextEvent = processStartTag();
+                    break;
+                case END_TAG:
+                    currentDepth--;
+                    nextEvent = processEndTag();
+                    break;
+                case END_TAG_WITHOUT_TEXT:
+                    currentDepth--;
+                    nextEvent = processEndTagWithoutText();
+                    break;
+                case ATTRIBUTE_NAME:
+                    nextEvent = processAttributeName();
+                    break;
+                case ATTRIBUTE_VALUE:
+                    nextEvent = processAttributeValue();
+                    break;
+                case TEXT:
+                    nextEvent = processText();
+                    break;
+                default:
+                    throw ParseException.otherError(this);
+            }
+            return currentEvent;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw ParseException.documentEndUnexpected(this);
+        }
+    }
+
+    /**
+     * read the beginning bytes of document, parse the charset, and return next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processStartDocument() throws ParseException {
+        skipUselessChar();
+        if (readAndCheck(cursor, '<')) {
+            if (readAndCheck(cursor + 1, '?')
+                    && readAndCheck(cursor + 2, 'x', 'X')
+                    && readAndCheck(cursor + 3, 'm', 'M')
+                    && readAndCheck(cursor + 4, 'l', 'L')) {
+                moveCursor(5);
+                skipUselessChar();
+
+                if (charset != null) {// if charset has been set, then just finish declaration.
+                    return processEndDeclaration();
+                } else { // charset has not been set, then find out encoding
+                    for (; notEnd(); moveCursor()) {
+                        if (readAndCheck(cursor, 'e', 'E')
+                                && readAndCheck(cursor + 1, 'n', 'N')
+                                && readAndCheck(cursor + 2, 'c', 'C')
+                                && readAndCheck(cursor + 3, 'o', 'O')
+                                && readAndCheck(cursor + 4, 'd', 'D')
+                                && readAndCheck(cursor + 5, 'i', 'I')
+                                && readAndCheck(cursor + 6, 'n', 'N')
+                                && readAndCheck(cursor + 7, 'g', 'G')) {
+                            moveCursor(8); // skip "encoding"
+                            skipUselessChar();
+                            if (readAndCheck(cursor, '=')) {
+                                moveCursor(1);
+                                skipUselessChar();
+                                if (readAndCheck(cursor, '\"', '\'')) {
+                                    processEncodingValue(); // parse encoding="xxx"
+                                    return processEndDeclaration();
+                                } else {
+                                    throw ParseException.formatError("need '\"' or '\'' here", this);
+                                }
+                            } else {
+                                throw ParseException.formatError("need '=' here", this);
+                            }
+                        } else if (readAndCheck(cursor, '?') && readAndCheck(cursor + 1, '>')) {
+                            moveCursor(2);
+                            skipUselessChar();
+                            return _processEndDeclaration();
+                        }
+                    }
+                    throw ParseException.formatError("xml declaration should contain encoding, or specify charset on method setInput(byte[], Charset)", this);
+                }
+            } else { // no declaration, no specified charset, so use the default charset, next event should be START_TAG
+                moveCursor(1);
+                if (charset == null) {
+                    charset = DEFAULT_CHARSET;
+                }
+                return START_TAG; // next event: start tag
+            }
+        } else {
+            throw ParseException.formatError("document should begin with '<'", this);
+        }
+    }
+
+    /**
+     * process end of declaration at the beginning of the document
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processEndDeclaration() throws ParseException {
+        for (; notEnd(); moveCursor()) {
+            if (readAndCheck(cursor, '?') && readAndCheck(cursor + 1, '>')) {
+                moveCursor(2);
+                skipUselessChar();
+                return _processEndDeclaration();
+            }
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * process end of declaration at the beginning of the document
+     *
+     * @return
+     * @throws ParseException
+     */
+    private int _processEndDeclaration() throws ParseException {
+        if (charset == null) {
+            charset = DEFAULT_CHARSET;
+        }
+        if (readAndCheck(cursor, '<')) {
+            moveCursor(1);
+            return START_TAG;
+        } else {
+            throw ParseException.formatError("should be a <tagName here", this);
+        }
+    }
+
+    /**
+     * process encoding value
+     *
+     * @throws ParseException
+     */
+    private void processEncodingValue() throws ParseException {
+        // check doubleQuote or singleQuote
+        currentInDoubleQuote = docBytes[cursor] == '\"';
+        moveCursor(1);
+        currentIndex = cursor;
+        for (; notEnd(); moveCursor()) {
+            byte cursorByte = docBytes[cursor];
+            if ((currentInDoubleQuote && cursorByte == '\"') || (!currentInDoubleQuote && cursorByte == '\'')) {// found another quotation, it's the end of attribute value
+                currentBytesLength = cursor - currentIndex; // length of attribute value
+                try {
+                    charset = Charset.forName(this.getString());
+                } catch (Exception e) {
+                    throw ParseException.formatError("encoding is not found or charset is not correct", this);
+                }
+                moveCursor(1); // skip another '\'' or '\"'
+                return;
+            }
+        }
+        throw ParseException.formatError("need another quotation", this);
+    }
+
+    /**
+     * process start tag, and find out next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processStartTag() throws ParseException {
+        // the first char has bean validated in previous event, so just skip it.
+        // to see: processAfterEndTag() and processStartDocument()
+        int hash = 0; // hash of tag name for name table
+        for (; notEnd(); moveCursor()) {
+            final byte cursorByte = docBytes[cursor];
+            if (!ByteUtils.isValidTokenChar(cursorByte)) {
+                setNameHash(hash);
+                if (readAndCheck(cursor, '>')) { // start tag
+                    currentBytesLength = cursor - currentIndex;
+                    moveCursor(1);
+                    return processAfterStartTag();
+                } else {
+                    int skipCharCount = skipUselessChar();
+                    // tagName should not contain whitespace
+                    currentBytesLength = cursor - skipCharCount - currentIndex;
+                    if (readAndCheck(cursor, '/')) { // tag end immediately
+                        moveCursor(1);
+                        return END_TAG_WITHOUT_TEXT;
+                    } else if (skipCharCount > 0) { // found attribute name
+                        return ATTRIBUTE_NAME;
+                    } else {
+                        throw ParseException.formatError("should be '/' or attribute here", this);
+                    }
+                }
+            }
+            hash = 31 * hash + cursorByte;
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * process end tag such like "</tagName>", and find out next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processEndTag() throws ParseException {
+        int hash = 0; // hash of tag name for name table
+        for (; notEnd(); moveCursor()) {
+            final byte cursorByte = docBytes[cursor];
+            if (cursorByte == '>') {// the tag end
+                currentBytesLength = cursor - currentIndex;
+                setNameHash(hash);
+                moveCursor(1);
+                return processAfterEndTag();
+            } else if (!ByteUtils.isValidTokenChar(cursorByte)) {
+                throw ParseException.formatError("tag name should not contain invalid char", this);
+            }
+            hash = 31 * hash + cursorByte;
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * process end tag without text, such like "<tagName name='aaa' />", and find out next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processEndTagWithoutText() throws ParseException {
+        if (readAndCheck(cursor, '>')) {
+            moveCursor(1);
+            return processAfterEndTag();
+        } else {
+            throw ParseException.tagNotClosed(this);
+        }
+    }
+
+    /**
+     * process bytes after a start tag, and find out next event.
+     * There are three possibility for next event:
+     * <li>another tag starts</li>
+     * <li>this tag end</li>
+     * <li>text for this tag</li>
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processAfterStartTag() throws ParseException {
+        // buffer may be compacted while skipping, so remember the offset from current token instead of the index
+        int tempOffset = cursor - currentIndex;
+        skipUselessChar();
+        // continue to find out next event: another start tag or end tag or text
+        if (readAndCheck(cursor, '<')) {
+            byte nextByte = (byte) read(cursor + 1);
+            if (ByteUtils.isValidTokenChar(nextByte)) { // found out another start tag
+                moveCursor(1); // skip "<"
+                return START_TAG;
+            } else if (nextByte == '/') { // found out end tag
+                moveCursor(2); // skip "</"
+                return END_TAG;
+            } else { // so it should be text CDATA block
+                // restore
+                cursor = currentIndex + tempOffset;
+                return TEXT;
+            }
+        } else {
+            // restore
+            cursor = currentIndex + tempOffset;
+            return TEXT;
+        }
+    }
+
+    /**
+     * process bytes after end tag.
+     * There are two possibilities:
+     * <li>another end tag</li>
+     * <li>another start tag</li>
+     * <li>end document</li>
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processAfterEndTag() throws ParseException {
+        skipUselessChar();
+        // continue to find out next event: end tag or another start tag or end document
+        if (!notEnd()) {
+            return END_DOCUMENT;
+        } else if (readAndCheck(cursor, '<')) {
+            if (readAndCheck(cursor + 1, '/')) { // found another end tag
+                moveCursor(2); // skip "</"
+                return END_TAG;
+            } else { // found a start tag
+                moveCursor(1);
+                return START_TAG;
+            }
+        } else {
+            throw ParseException.formatError("need a start tag or end document here", this);
+        }
+    }
+
+    /**
+     * process attribute name, and find out next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processAttributeName() throws ParseException {
+        int hash = docBytes[cursor]; // hash of attribute name for name table
+        moveCursor(1); // the first char has been checked in previous event, so here just skip it
+        for (; notEnd(); moveCursor()) {// read tag bytes
+            final byte cursorByte = docBytes[cursor];
+            if (!ByteUtils.isValidTokenChar(cursorByte)) {// this attribute name end
+                currentBytesLength = cursor - currentIndex;
+                setNameHash(hash);
+                skipUselessChar(); // skip ' ' and '\t' between attribute name and '='
+                // read "=\"", '\'' should be ok
+                if (readAndCheck(cursor, '=')) {
+                    moveCursor(1);
+                    skipUselessChar(); // skip ' ' and '\t' between '=' and attribute value
+                    if (readAndCheck(cursor, '\"', '\'')) { // found the quotation at the beginning of attribute value
+                        return ATTRIBUTE_VALUE; // found attribute value
+                    } else {
+                        throw ParseException.formatError("need '\"' or '\'' here", this);
+                    }
+                } else {
+                    throw ParseException.formatError("need '=' here", this);
+                }
+            }
+            hash = 31 * hash + cursorByte;
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * process attribute value, and find out next event
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processAttributeValue() throws ParseException {
+        // check doubleQuote or singleQuote
+        currentInDoubleQuote = docBytes[cursor] == '\"';
+        currentIndex++;
+        moveCursor(1);
+        final byte quote = currentInDoubleQuote ? (byte) '\"' : (byte) '\'';
+        final long quoteWord = currentInDoubleQuote ? DOUBLE_QUOTE_WORD : SINGLE_QUOTE_WORD;
+        long scanned = 0; // all scanned bytes combined, to check ASCII
+        for (; notEnd(); ) {
+            // scan the bytes in buffer until find out the quotation or entity reference, 8 bytes at a time at first
+            final byte[] bytes = docBytes;
+            final int end = docBytesLength;
+            final ByteBuffer words = wordView(bytes);
+            int i = cursor;
+            for (; i + 8 <= end; i += 8) {
+                final long word = words.getLong(i);
+                final long match = ByteUtils.matchByte(word, quoteWord) | ByteUtils.matchByte(word, AMP_WORD);
+                if (match != 0) {
+                    final int found = ByteUtils.firstMatchedByte(match);
+                    scanned |= ByteUtils.bytesBefore(word, found);
+                    i += found;
+                    break;
+                }
+                scanned |= word;
+            }
+            byte cursorByte = 0;
+            for (; i < end; i++) {
+                cursorByte = bytes[i];
+                if (cursorByte == quote || cursorByte == '&') {
+                    break;
+                }
+                scanned |= cursorByte;
+            }
+            cursor = i;
+            if (i == end) { // need more bytes
+                continue;
+            }
+            if (cursorByte == quote) {// found another quotation, it's the end of attribute value
+                currentBytesLength = cursor - currentIndex; // length of attribute value
+                currentAscii = ByteUtils.isAscii(scanned);
+                moveCursor(1);
+                // continue to read byte until find next event
+                skipUselessChar();
+                cursorByte = (byte) read(cursor);
+                if (ByteUtils.isValidTokenChar(cursorByte)) {// next attributeName
+                    return ATTRIBUTE_NAME;
+                } else if (cursorByte == '>') { // the start tag
+                    moveCursor(1);
+                    return processAfterStartTag();
+                } else if (cursorByte == '/') {// found end tag
+                    moveCursor(1);
+                    return END_TAG_WITHOUT_TEXT;
+                } else {
+                    throw ParseException.formatError("should be space or '>' or '/>' or another attribute here", this);
+                }
+            } else { // attribute value contains entity reference
+                currentHasEntityReference = true;
+                moveCursor(1);
+            }
+        }
+        throw ParseException.formatError("need another quotation", this);
+    }
+
+    /**
+     * Text wrapped by a pair of tag.
+     * this method will not get rid of CDATA block, because it will break the order of docBytes.
+     * The exact text will be extract in getString() or getString(boolean) or getInt() or getLong() or getDouble() or getFloat() method etc.
+     * If text is chunked, a long text is cut into several chunks, and next event will be TEXT again until the whole text is delivered.
+     *
+     * @return next event
+     * @throws ParseException
+     */
+    private int processText() throws ParseException {
+        final boolean chunked = textChunked && source != null;
+        currentTextContinued = textChunkState != CHUNK_NONE;
+        currentInCDATA = textChunkState == CHUNK_CDATA;
+        textChunkState = CHUNK_NONE;
+        boolean inCDATA = currentInCDATA;
+        int cdataBegin = 0; // offset of "<![CDATA[" from currentIndex, when CDATA block begins in current chunk
+        int cdataEnd = 0; // offset after "]]>" of the last CDATA block from currentIndex, entity references are after it
+        long scanned = 0; // all scanned bytes combined, to check ASCII
+        if (textResumeCursor >= 0) { // continue from where the bytes ran out last time
+            cursor = markIndex + textResumeCursor;
+            currentIndex = markIndex + textResumeIndex;
+            cdataBegin = textResumeCdataBegin;
+            cdataEnd = textResumeCdataEnd;
+            scanned = textResumeScanned;
+            inCDATA = (textResumeFlags & 1) != 0;
+            currentInCDATA = (textResumeFlags & 2) != 0;
+            currentHasEntityReference = (textResumeFlags & 4) != 0;
+            textResumeCursor = -1;
+        }
+        try {
+            for (; notEnd(); moveCursor()) {
+                // scan the bytes in buffer until find out a byte need to be checked, 8 bytes at a time at first
+                final byte[] bytes = docBytes;
+                final int end = chunked ? Math.min(docBytesLength, currentIndex + bytes.length / 2 - MAX_LOOKAHEAD) : docBytesLength;
+                final ByteBuffer words = wordView(bytes);
+                int i = cursor;
+                byte currentCursor = 0;
+                if (inCDATA) {
+                    for (; i + 8 <= end; i += 8) {
+                        final long word = words.getLong(i);
+                        final long match = ByteUtils.matchByte(word, RSQB_WORD);
+                        if (match != 0) {
+                            final int found = ByteUtils.firstMatchedByte(match);
+                            scanned |= ByteUtils.bytesBefore(word, found);
+                            i += found;
+                            break;
+                        }
+                        scanned |= word;
+                    }
+                    for (; i < end; i++) {
+                        currentCursor = bytes[i];
+                        if (currentCursor == ']') {
+                            break;
+                        }
+                        scanned |= currentCursor;
+                    }
+                } else {
+                    for (; i + 8 <= end; i += 8) {
+                        final long word = words.getLong(i);
+                        final long match = ByteUtils.matchByte(word, LT_WORD) | ByteUtils.matchByte(word, AMP_WORD);
+                        if (match != 0) {
+                            final int found = ByteUtils.firstMatchedByte(match);
+                            scanned |= ByteUtils.bytesBefore(word, found);
+                            i += found;
+                            break;
+                        }
+                        scanned |= word;
+                    }
+                    for (; i < end; i++) {
+                        currentCursor = bytes[i];
+                        if (currentCursor == '<' || currentCursor == '&') {
+                            break;
+                        }
+                        scanned |= currentCursor;
+                    }
+                }
+                if (i >= end) { // cursor may be a few bytes after the end of chunk, after skipping a CDATA marker
+                    if (i < docBytesLength) { // chunk is long enough, deliver it before buffer grows
+                        return cutTextChunk(i, inCDATA, cdataBegin, cdataEnd, scanned);
+                    }
+                    cursor = i - 1; // need more bytes, keep cursor at the last byte which has been checked
+                    continue;
+                }
+                cursor = i;
+                if (inCDATA) { // in CDATA block, then find out "]]>"
+                    if (readAndCheck(cursor + 1, ']') && readAndCheck(cursor + 2, '>')) {
+                        if (currentInCDATA) { // current chunk is the content of CDATA block
+                            if (cursor > currentIndex) { // deliver the content, and the rest text will be the next chunk
+                                currentBytesLength = cursor - currentIndex;
+                                currentAscii = ByteUtils.isAscii(scanned);
+                                moveCursor(3); // skip "]]>"
+                                textChunkState = CHUNK_TEXT;
+                                return TEXT;
+                            }
+                            currentInCDATA = false;
+                            currentIndex = cursor + 3; // nothing has been delivered, so just skip "]]>"
+                        }
+                        moveCursor(2);
+                        inCDATA = false;
+                        cdataEnd = cursor + 1 - currentIndex;
+                    }
+                } else { // not in CDATA block
+                    if (currentCursor == '<') {
+                        byte nextByte = (byte) read(cursor + 1);
+                        if (nextByte == '!' && readAndCheck(cursor + 2, '[') && readAndCheck(cursor + 3, 'C')
+                                && readAndCheck(cursor + 4, 'D') && readAndCheck(cursor + 5, 'A') && readAndCheck(cursor + 6, 'T')
+                                && readAndCheck(cursor + 7, 'A') && readAndCheck(cursor + 8, '[')) { // found CDATA block
+                            cdataBegin = cursor - currentIndex;
+                            moveCursor(8);
+                            inCDATA = true;
+                        } else if (nextByte == '/') { // found end tag
+                            currentBytesLength = cursor - currentIndex;
+                            currentAscii = ByteUtils.isAscii(scanned);
+                            moveCursor(2); // skip "</"
+                            return END_TAG;
+                        }
+                    } else if (currentCursor == '&') { // text content contains entity reference
+                        currentHasEntityReference = true;
+                    }
+                }
+            }
+            throw ParseException.documentEndUnexpected(this);
+        } catch (InputIncompleteException e) { // bytes before cursor have been scanned
+            textResumeCursor = cursor - markIndex;
+            textResumeIndex = currentIndex - markIndex;
+            textResumeCdataBegin = cdataBegin;
+            textResumeCdataEnd = cdataEnd;
+            textResumeScanned = scanned;
+            textResumeFlags = (inCDATA ? 1 : 0) | (currentInCDATA ? 2 : 0) | (currentHasEntityReference ? 4 : 0);
+            throw e;
+        }
+    }
+
+    /**
+     * end current text chunk near the index, the rest text will be delivered by next TEXT event.
+     * A chunk never ends inside a char, an entity reference or a CDATA marker.
+     * The content of a long CDATA block is delivered without markers, and currentInCDATA is true for it.
+     *
+     * @param index   index of the first byte which has not been scanned
+     * @param inCDATA index is in a CDATA block
+     * @param cdataBegin offset of "<![CDATA[" from currentIndex, if CDATA block begins in current chunk
+     * @param cdataEnd offset after "]]>" of the last CDATA block from currentIndex, '&' before it is not an entity reference
+     * @param scanned all scanned bytes combined
+     * @return next event
+     */
+    private int cutTextChunk(int index, boolean inCDATA, int cdataBegin, int cdataEnd, long scanned) {
+        int chunkEnd;
+        if (!inCDATA) {
+            chunkEnd = charBoundary(index);
+            for (int i = chunkEnd - 1; i >= currentIndex + cdataEnd && i >= chunkEnd - MAX_ENTITY_REFERENCE_LENGTH; i--) {
+                if (docBytes[i] == ';') {
+                    break;
+                } else if (docBytes[i] == '&') { // keep the whole entity reference in next chunk
+                    chunkEnd = i;
+                    break;
+                }
+            }
+            textChunkState = CHUNK_TEXT;
+        } else if (currentInCDATA) { // in the content of CDATA block since the beginning of chunk
+            chunkEnd = charBoundary(index);
+            textChunkState = CHUNK_CDATA;
+        } else if (cdataBegin > 0) { // end the chunk before CDATA block, which will be scanned again by next chunk
+            chunkEnd = currentIndex + cdataBegin;
+            textChunkState = CHUNK_TEXT;
+        } else { // chunk begins with CDATA block, deliver the content of it
+            currentIndex += 9; // skip "<![CDATA["
+            currentInCDATA = true;
+            currentHasEntityReference = false;
+            chunkEnd = charBoundary(index);
+            textChunkState = CHUNK_CDATA;
+        }
+        currentBytesLength = chunkEnd - currentIndex;
+        currentAscii = ByteUtils.isAscii(scanned);
+        cursor = chunkEnd;
+        return TEXT;
+    }
+
+    /**
+     * find out the nearest index not after the specific index, where a char begins.
+     * Bytes of UTF-8 are checked directly. For other multi-byte charsets, the index after two ASCII bytes is a char boundary,
+     * if there are no such bytes nearby, bytes of current chunk are decoded to find out where the last complete char ends.
+     *
+     * @param index index in current token
+     * @return index of the char boundary, which is greater than currentIndex
+     */
+    private int charBoundary(int index) {
+        final byte[] bytes = docBytes;
+        if (ParseUtils.isSinglePassCharset(charset)) { // in UTF-8, continuation bytes are 10xxxxxx
+            for (int i = 0; i < 3 && index > currentIndex + 1 && (bytes[index] & 0xC0) == 0x80; i++) {
+                index--;
+            }
+            return index;
+        }
+        for (int i = index; i > currentIndex + 2 && i > index - MAX_LOOKAHEAD * 4; i--) {
+            if (bytes[i - 1] >= 0 && bytes[i - 2] >= 0) {
+                return i;
+            }
+        }
+        // current chunk always begins at a char boundary, so decoding it stops before the incomplete char at the end
+        if (chunkDecoder == null || chunkDecoder.charset() != charset) {
+            chunkDecoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chunkChars = CharBuffer.allocate(256);
+        }
+        final ByteBuffer in = ByteBuffer.wrap(bytes, currentIndex, index - currentIndex);
+        chunkDecoder.reset();
+        do {
+            chunkChars.clear();
+        } while (chunkDecoder.decode(in, chunkChars, false).isOverflow());
+        return in.position() > currentIndex ? in.position() : index;
+    }
+
+    /**
+     * skip useless chars, such as ' ', '\t', '\n', '\r', comment, DOCTYPE
+     *
+     * @return count of useless chars
+     * @throws ParseException
+     */
+    private int skipUselessChar() throws ParseException {
+        // buffer may be compacted while skipping, so count from current token instead of the index
+        int beginOffset = cursor - currentIndex;
+        for (; notEnd(); moveCursor()) {
+            byte cursorByte = docBytes[cursor];
+            if (ByteUtils.isWhiteSpaceOrNewLine(cursorByte)) { // found useless character: ' ','\t','\r','\n'
+                // continue
+            } else if (cursorByte == '<' && readAndCheck(cursor + 1, '!')) {
+                skipOtherUselessChar();
+            } else { // found valid char
+                break;
+            }
+        }
+        return cursor - currentIndex - beginOffset;
+    }
+
+    /**
+     * skip comment and DTA DOCTYPE
+     *
+     * @throws ParseException
+     */
+    private void skipOtherUselessChar() throws ParseException {
+        if (readAndCheck(cursor + 2, '-') && readAndCheck(cursor + 3, '-')) { // found comment
+            moveCursor(4); // skip "<!--"
+            skipComment();
+            // continue
+        } else if (readAndCheck(cursor + 2, 'D') && readAndCheck(cursor + 3, 'O') && readAndCheck(cursor + 4, 'C')
+                && readAndCheck(cursor + 5, 'T') && readAndCheck(cursor + 6, 'Y') && readAndCheck(cursor + 7, 'P')
+                && readAndCheck(cursor + 8, 'E')) { // found DTD DOCTYPE
+            moveCursor(8); // skip "<!DOCTYPE"
+            skipDocType();
+            // continue
+        }
+    }
+
+    /**
+     * skip DTD DOCTYPE block
+     * <p>
+     * DOCTYPE define in external file:
+     * <!DOCTYPE customer SYSTEM "http://www.myserver.com/xml/custemer.dtd">
+     * <p>
+     * DOCTYPE define in doc:
+     * <!DOCTYPE message [
+     * <!ELEMENT message (header, body, (signature | footer))>
+     * <!ElEMENT header (data, from, to+, subject, banner?)>
+     * ......
+     * ]>
+     *
+     * @throws ParseException
+     */
+    private void skipDocType() throws ParseException {
+        boolean docTypeDefineInDoc = false;
+        for (; notEnd(); moveCursor()) {
+            if (!docTypeDefineInDoc && readAndCheck(cursor, '[')) { // DTD DOCTYPE defined in document
+                docTypeDefineInDoc = true;
+            } else if (docTypeDefineInDoc) {
+                boolean foundEndBracket = false;
+                for (; notEnd(); moveCursor()) {
+                    if (!foundEndBracket && readAndCheck(cursor, ']')) {
+                        foundEndBracket = true;
+                    } else if (foundEndBracket && readAndCheck(cursor, '>')) { // doctype end
+                        return;
+                    }
+                }
+            } else if (readAndCheck(cursor, '>')) { // doctype end
+                return;
+            }
+        }
+        throw ParseException.formatError("DTD DOCTYPE does not closed", this);
+    }
+
+    /**
+     * skip comment block
+     *
+     * @throws ParseException
+     */
+    private void skipComment() throws ParseException {
+        for (; notEnd(); moveCursor()) {
+            // scan the bytes in buffer until find out '-'
+            final byte[] bytes = docBytes;
+            final int end = docBytesLength;
+            int i = cursor;
+            while (i < end && bytes[i] != '-') {
+                i++;
+            }
+            if (i == end) { // need more bytes, keep cursor at the last byte which has been checked
+                cursor = i - 1;
+                continue;
+            }
+            cursor = i;
+            if (readAndCheck(cursor + 1, '-') && readAndCheck(cursor + 2, '>')) { // comment end
+                moveCursor(2); // skip "-->"
+                return;
+            }
+        }
+        throw ParseException.formatError("comment does not closed", this);
+    }
+
+    /**
+     * Skip current tag and its descendants。
+     * This method should be called after next()==START_TAG.
+     * The bytes of descendants are scanned for the nesting of tags only, without any event,
+     * so it stops at the end tag of current tag, which is the current event after skipping.
+     */
+    public void skipCurrentTag() throws ParseException {
+        if (currentEvent != START_TAG) { // called on attributes, skip by events
+            int event; // temp
+            int tempDepth = currentDepth - 1; // the depth before this tag
+            for (; ; ) {
+                event = next();
+                if (currentDepth == tempDepth && (event == END_TAG || event == END_TAG_WITHOUT_TEXT)) { // this tag and its descendants is skipped
+                    return;
+                } else if (event == END_DOCUMENT) {
+                    throw ParseException.documentEndUnexpected(this);
+                }
+            }
+        }
+        skipTag(null);
+    }
+
+    /**
+     * skip current tag like skipCurrentTag(), and copy the bytes of the whole tag into segment.
+     * The bytes of the tag are kept in buffer while skipping, so the buffer may grow up to the max size of buffer policy.
+     * This method should be called after next()==START_TAG.
+     *
+     * @param segment the segment which the bytes are copied into
+     * @throws ParseException
+     */
+    void copyCurrentTag(Segment segment) throws ParseException {
+        if (currentEvent != START_TAG) {
+            throw ParseException.formatError("current event should be START_TAG", this);
+        }
+        keepSkippedBytes = true;
+        try {
+            skipTag(segment);
+        } finally {
+            keepSkippedBytes = false;
+        }
+    }
+
+    /**
+     * skip current tag from START_TAG, and copy its bytes if segment is not null
+     */
+    private void skipTag(Segment segment) throws ParseException {
+        if (nextEvent == ATTRIBUTE_NAME) { // cursor is in the start tag
+            if (skipTagRest()) { // tag end immediately, cursor is at '>'
+                copyTag(segment);
+                resetCurrent();
+                nextEvent = END_TAG_WITHOUT_TEXT;
+                next();
+                return;
+            }
+            moveCursor(1); // skip '>'
+        } else if (nextEvent == START_TAG) {
+            cursor--; // back to '<' of the first child
+        } else if (nextEvent == END_TAG_WITHOUT_TEXT) { // nothing to skip, cursor is at '>'
+            if (segment != null && read(cursor) == '>') {
+                copyTag(segment);
+            }
+            next();
+            return;
+        }
+        if (nextEvent != END_TAG) { // END_TAG means the tag is empty, cursor is after "</" already
+            skipContent();
+        }
+        if (segment != null) { // copy until '>' of end tag, then restore cursor for next()
+            final int endTagOffset = cursor - currentIndex;
+            skipUntil('>', GT_WORD);
+            copyTag(segment);
+            cursor = currentIndex + endTagOffset;
+        }
+        nextEvent = END_TAG;
+        next();
+    }
+
+    /**
+     * copy bytes of current tag into segment, from the tag name to '>' at cursor
+     */
+    private void copyTag(Segment segment) {
+        if (segment != null) {
+            segment.setTag(docBytes, currentIndex, cursor + 1 - currentIndex);
+        }
+    }
+
+    /**
+     * skip the content of current tag by counting the nesting of tags, comments, CDATA blocks and processing instructions
+     * are skipped as a whole, cursor will be after "</" of the end tag of current tag.
+     *
+     * @throws ParseException
+     */
+    private void skipContent() throws ParseException {
+        if (!keepSkippedBytes) {
+            currentIndex = cursor; // the bytes before cursor are not needed any more
+        }
+        int level = 1; // count of tags not closed
+        for (; ; ) {
+            skipUntil('<', LT_WORD);
+            if (!keepSkippedBytes) {
+                currentIndex = cursor;
+            }
+            final int nextByte = read(cursor + 1);
+            if (nextByte == '/') { // end tag
+                moveCursor(2); // skip "</"
+                if (--level == 0) {
+                    return;
+                }
+            } else if (nextByte == '!') {
+                if (readAndCheck(cursor + 2, '-') && readAndCheck(cursor + 3, '-')) { // comment
+                    moveCursor(4); // skip "<!--"
+                    skipComment();
+                } else if (readAndCheck(cursor + 2, '[') && readAndCheck(cursor + 3, 'C')
+                        && readAndCheck(cursor + 4, 'D') && readAndCheck(cursor + 5, 'A') && readAndCheck(cursor + 6, 'T')
+                        && readAndCheck(cursor + 7, 'A') && readAndCheck(cursor + 8, '[')) { // CDATA block, all bytes are read
+                    moveCursor(9); // skip "<![CDATA["
+                    for (; ; moveCursor()) {
+                        skipUntil(']', RSQB_WORD);
+                        if (readAndCheck(cursor + 1, ']') && readAndCheck(cursor + 2, '>')) {
+                            moveCursor(2); // skip "]]>"
+                            break;
+                        }
+                    }
+                } else {
+                    skipUntil('>', GT_WORD);
+                }
+            } else if (nextByte == '?') { // processing instruction
+                moveCursor(2); // skip "<?"
+                for (; ; moveCursor()) {
+                    skipUntil('?', QUESTION_MARK_WORD);
+                    if (readAndCheck(cursor + 1, '>')) {
+                        moveCursor(1); // skip "?>"
+                        break;
+                    }
+                }
+            } else { // start tag
+                moveCursor(1); // skip "<"
+                if (!skipTagRest()) {
+                    level++;
+                }
+            }
+        }
+    }
+
+    /**
+     * skip the rest of a start tag, attribute values may contain '>'
+     *
+     * @return true if the tag ends with "/>", cursor will be at '>'
+     * @throws ParseException
+     */
+    private boolean skipTagRest() throws ParseException {
+        for (; notEnd(); moveCursor()) {
+            // scan the bytes in buffer until find out '>' or a quotation, 8 bytes at a time at first
+            final byte[] bytes = docBytes;
+            final int end = docBytesLength;
+            final ByteBuffer words = wordView(bytes);
+            int i = cursor;
+            for (; i + 8 <= end; i += 8) {
+                final long word = words.getLong(i);
+                final long match = ByteUtils.matchByte(word, GT_WORD) | ByteUtils.matchByte(word, DOUBLE_QUOTE_WORD)
+                        | ByteUtils.matchByte(word, SINGLE_QUOTE_WORD);
+                if (match != 0) {
+                    i += ByteUtils.firstMatchedByte(match);
+                    break;
+                }
+            }
+            for (; i < end; i++) {
+                final byte b = bytes[i];
+                if (b == '>' || b == '\"' || b == '\'') {
+                    break;
+                }
+            }
+            if (i == end) { // need more bytes, keep cursor at the last byte which has been checked
+                cursor = i - 1;
+                continue;
+            }
+            cursor = i;
+            if (bytes[i] == '>') { // the byte before it is kept in buffer, since the tag name or a quotation is before it
+                return bytes[i - 1] == '/';
+            } else if (bytes[i] == '\"') {
+                moveCursor();
+                skipUntil('\"', DOUBLE_QUOTE_WORD);
+            } else {
+                moveCursor();
+                skipUntil('\'', SINGLE_QUOTE_WORD);
+            }
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * move cursor to the next specific byte, 8 bytes are checked at a time.
+     * The bytes skipped are released from buffer, so that buffer of input stream never grows while skipping.
+     *
+     * @param b     the byte
+     * @param bWord the byte repeated 8 times
+     * @throws ParseException
+     */
+    private void skipUntil(final int b, final long bWord) throws ParseException {
+        for (; notEnd(); moveCursor()) {
+            final byte[] bytes = docBytes;
+            final int end = docBytesLength;
+            final ByteBuffer words = wordView(bytes);
+            int i = cursor;
+            for (; i + 8 <= end; i += 8) {
+                final long match = ByteUtils.matchByte(words.getLong(i), bWord);
+                if (match != 0) {
+                    cursor = i + ByteUtils.firstMatchedByte(match);
+                    return;
+                }
+            }
+            for (; i < end; i++) {
+                if (bytes[i] == b) {
+                    cursor = i;
+                    return;
+                }
+            }
+            cursor = i - 1; // need more bytes, keep cursor at the last byte which has been checked
+            if (!keepSkippedBytes) {
+                currentIndex = cursor;
+            }
+        }
+        throw ParseException.documentEndUnexpected(this);
+    }
+
+    /**
+     * get the little endian view of bytes for reading 8 bytes at a time
+     *
+     * @param bytes docBytes
+     * @return view of bytes
+     */
+    private ByteBuffer wordView(final byte[] bytes) {
+        if (wordsBytes != bytes) {
+            wordsBytes = bytes;
+            words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return words;
+    }
+
+    /**
+     * reset currentIndex and currentBytesLength when traverse to another element
+     */
+    private void resetCurrent() {
+        currentIndex = cursor;
+        currentBytesLength = 0;
+    }
+
+    private void moveCursor() {
+        cursor++;
+    }
+
+    private void moveCursor(int count) {
+        cursor += count;
+    }
+
+    /**
+     * check whether there is any byte at cursor, read a block of bytes from source if the buffer is exhausted
+     *
+     * @return false if reach the end of input
+     * @throws ParseException
+     */
+    private boolean notEnd() throws ParseException {
+        return cursor < docBytesLength || fill();
+    }
+
+    /**
+     * check the byte is the same as b1 or b2
+     *
+     * @param index
+     * @param b1
+     * @param b2
+     * @return
+     * @throws ParseException
+     */
+    private boolean readAndCheck(int index, int b1, int b2) throws ParseException {
+        int b = read(index);
+        return b == b1 || b == b2;
+    }
+
+    /**
+     * check the byte of specific index is the same as the specific byte
+     *
+     * @param index
+     * @param b
+     * @return
+     * @throws ParseException
+     */
+    private boolean readAndCheck(int index, int b) throws ParseException {
+        return b == read(index);
+    }
+
+    /**
+     * get the byte of specific index, read blocks of bytes from source if the index is out of buffer
+     *
+     * @param index
+     * @return the byte, or -1 if reach the end of input
+     * @throws ParseException
+     */
+    private int read(int index) throws ParseException {
+        if (index < docBytesLength) {
+            return docBytes[index];
+        }
+        // buffer may be compacted while reading, so keep the offset from cursor instead of the index
+        int offset = index - cursor;
+        while (cursor + offset >= docBytesLength) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return docBytes[cursor + offset];
+    }
+
+    /**
+     * read a block of bytes from source into the free space at the end of buffer.
+     * The bytes from currentIndex are pinned, which will never be discarded, and will only be moved by compactBuffer() or growBuffer().
+     * So the index of a position which should be kept across reading must be saved as an offset from currentIndex.
+     *
+     * @return false if reach the end of input
+     * @throws ParseException
+     */
+    private boolean fill() throws ParseException {
+        if (endOfInput) { // the whole document is in docBytes, or all bytes have been read
+            return false;
+        }
+        ensureFreeSpace();
+        try {
+            int count;
+            while ((count = source.read(docBytes, docBytesLength, docBytes.length - docBytesLength)) == 0) {
+                if (source.isNonBlocking()) {
+                    throw InputIncompleteException.INSTANCE;
+                }
+            }
+            if (count < 0) {
+                endOfInput = true;
+                source.close();
+                return false;
+            }
+            docBytesLength += count;
+            return true;
+        } catch (IOException e) {
+            throw ParseException.ioException(e);
+        }
+    }
+
+    /**
+     * make sure there is free space at the end of buffer for reading.
+     * Buffer is compacted only when the free space is running out and enough bytes can be discarded,
+     * buffer grows only when it's full and the pinned bytes take up most of it.
+     * Buffer of max size is compacted whenever any byte can be discarded.
+     *
+     * @throws BufferLimitException if the pinned bytes take up the whole buffer of max size
+     */
+    private void ensureFreeSpace() throws BufferLimitException {
+        int bufferLength = docBytes.length;
+        int freeSpace = bufferLength - docBytesLength;
+        if (freeSpace < bufferLength / COMPACT_FREE_SPACE_RATIO) {
+            int pinnedIndex = pinnedIndex();
+            if (pinnedIndex >= bufferLength / COMPACT_DISCARD_RATIO) {
+                compactBuffer();
+            } else if (freeSpace == 0) {
+                if (bufferLength < bufferPolicy.getMaxSize()) {
+                    growBuffer();
+                } else if (pinnedIndex > 0) {
+                    compactBuffer();
+                } else {
+                    throw BufferLimitException.bufferLimitExceeded(bufferPolicy.getMaxSize(), this);
+                }
+            }
+        }
+    }
+
+    /**
+     * current line number: starting from 1
+     *
+     * @return
+     */
+    public int getRow() {
+        int row = discardedRows + 1;
+        for (int i = docBytesOffset; i < cursor && i < docBytesLength; i++) {
+            if (docBytes[i] == '\n') {
+                row++;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * current column number: starting from 1
+     *
+     * @return
+     */
+    public int getColumn() {
+        int i = Math.min(cursor, docBytesLength) - 1;
+        int column = 1;
+        for (; i >= docBytesOffset; i--, column++) {
+            if (docBytes[i] == '\n') {
+                return column;
+            }
+        }
+        return discardedColumn + column;
+    }
+
+    /**
+     * discard bytes before current token, and move the rest bytes to the beginning of buffer for reusing
+     */
+    private void compactBuffer() {
+        int pinnedIndex = pinnedIndex();
+        discard(pinnedIndex);
+        move(docBytes, pinnedIndex);
+    }
+
+    /**
+     * the first index of bytes which should be kept in buffer
+     */
+    private int pinnedIndex() {
+        return markIndex >= 0 && markIndex < currentIndex ? markIndex : currentIndex;
+    }
+
+    /**
+     * remember the position of bytes which will be discarded, for computing row and column
+     *
+     * @param discardLength count of bytes at the beginning of buffer to be discarded
+     */
+    private void discard(int discardLength) {
+        for (int i = 0; i < discardLength; i++) {
+            if (docBytes[i] == '\n') {
+                discardedRows++;
+                discardedColumn = 0;
+            } else {
+                discardedColumn++;
+            }
+        }
+    }
+
+    /**
+     * move bytes from the pinned index of old buffer to the beginning of docBytes
+     *
+     * @param oldBuffer   old buffer, may be docBytes itself
+     * @param pinnedIndex the first index of bytes to be kept
+     */
+    private void move(byte[] oldBuffer, int pinnedIndex) {
+        System.arraycopy(oldBuffer, pinnedIndex, docBytes, 0, docBytesLength - pinnedIndex);
+        this.docBytesLength -= pinnedIndex;
+        this.cursor -= pinnedIndex;
+        this.currentIndex -= pinnedIndex;
+        if (markIndex >= 0) {
+            this.markIndex -= pinnedIndex;
+        }
+    }
+
+    /**
+     * grow buffer by buffer policy, when find an element longer than current buffer.
+     * Bytes before current token are discarded at the same time.
+     */
+    private void growBuffer() {
+        byte[] oldBuffer = this.docBytes;
+        int pinnedIndex = pinnedIndex();
+        discard(pinnedIndex);
+        this.docBytes = new byte[bufferPolicy.grow(oldBuffer.length)];
+        this.buffer = docBytes;
+        this.peakBufferSize = Math.max(peakBufferSize, docBytes.length);
+        move(oldBuffer, pinnedIndex);
+    }
+
+    /**
+     * save the state of parser before parsing an event from a non-blocking source, and pin the bytes of the event,
+     * so that the event can be parsed again by restore() and next(), after more bytes are available.
+     */
+    void mark() {
+        // token of current event is released by next(), except for END_TAG_WITHOUT_TEXT which keeps the name of start tag
+        final int index = nextEvent == END_TAG_WITHOUT_TEXT ? Math.min(cursor, currentIndex) : cursor;
+        markIndex = index;
+        markCursor = cursor - index;
+        markCurrentIndex = currentIndex - index;
+        markBytesLength = currentBytesLength;
+        markEvent = currentEvent;
+        markNextEvent = nextEvent;
+        markDepth = currentDepth;
+        markFlags = (currentInDoubleQuote ? 1 : 0) | (currentHasEntityReference ? 2 : 0) | (currentAscii ? 4 : 0)
+                | (currentTextDecoded ? 8 : 0) | (currentInCDATA ? 16 : 0) | (currentTextContinued ? 32 : 0)
+                | (currentNameHashed ? 64 : 0);
+        markNameHash = currentNameHash;
+        markTextChunkState = textChunkState;
+        markCharset = charset;
+    }
+
+    /**
+     * restore the state saved by mark(), the bytes read from source after mark() are kept.
+     * Token of current event is released, unless next event is END_TAG_WITHOUT_TEXT.
+     */
+    void restore() {
+        final int index = markIndex;
+        cursor = index + markCursor;
+        if (markCurrentIndex >= 0) {
+            currentIndex = index + markCurrentIndex;
+            currentBytesLength = markBytesLength;
+        } else { // token of current event is not pinned, it may have been discarded
+            currentIndex = cursor;
+            currentBytesLength = 0;
+        }
+        currentEvent = markEvent;
+        nextEvent = markNextEvent;
+        currentDepth = markDepth;
+        currentInDoubleQuote = (markFlags & 1) != 0;
+        currentHasEntityReference = (markFlags & 2) != 0;
+        currentAscii = (markFlags & 4) != 0;
+        currentTextDecoded = (markFlags & 8) != 0;
+        currentInCDATA = (markFlags & 16) != 0;
+        currentTextContinued = (markFlags & 32) != 0;
+        currentNameHashed = (markFlags & 64) != 0;
+        currentNameHash = markNameHash;
+        textChunkState = markTextChunkState;
+        charset = markCharset;
+    }
+
+    /**
+     * release the bytes pinned by mark()
+     */
+    void unmark() {
+        markIndex = -1;
+    }
+
     public byte[] getDocument() {
         return this.docBytes;
     }
@@ -87,6 +1687,14 @@ public abstract class AbstractFastXmlParser implements FastXmlParser {
         return this.cursor;
     }
 
+    public final int getCurrentIndex() {
+        return this.currentIndex;
+    }
+
+    public final int getCurrentBytesLength() {
+        return this.currentBytesLength;
+    }
+
     public final int getCurrentEvent() {
         return this.currentEvent;
     }
@@ -102,4 +1710,389 @@ public abstract class AbstractFastXmlParser implements FastXmlParser {
     public int getDepth() {
         return currentDepth;
     }
+
+    public boolean isMatch(byte[] expectBytes) {
+        int length = expectBytes.length;
+        if (expectBytes.length == currentBytesLength) {
+            for (int i = currentIndex, j = 0; j < length; i++, j++) {
+                if (docBytes[i] != expectBytes[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set the symbol table of names for getName() and getNameId(), a shared table can be set to parsers in different threads.
+     *
+     * @param nameTable symbol table
+     */
+    public void setNameTable(NameTable nameTable) {
+        this.nameTable = nameTable;
+    }
+
+    public NameTable getNameTable() {
+        if (nameTable == null) {
+            nameTable = new NameTable();
+        }
+        return nameTable;
+    }
+
+    public String getName() {
+        final int id = getNameId();
+        if (id != NameTable.NO_ID) {
+            return nameTable.getName(id);
+        }
+        final char[] chars = new char[currentBytesLength]; // name table is full
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) docBytes[currentIndex + i];
+        }
+        return new String(chars);
+    }
+
+    public int getNameId() {
+        return getNameTable().getId(docBytes, currentIndex, currentBytesLength, nameHash());
+    }
+
+    public int match(NameSet nameSet) {
+        return nameSet.indexOf(docBytes, currentIndex, currentBytesLength, nameHash());
+    }
+
+    /**
+     * hash of current name, it's computed while scanning tag name and attribute name, and computed here for other tokens
+     *
+     * @return hash of current bytes
+     */
+    private int nameHash() {
+        if (!currentNameHashed) {
+            setNameHash(NameTable.hash(docBytes, currentIndex, currentBytesLength));
+        }
+        return currentNameHash;
+    }
+
+    private void setNameHash(int hash) {
+        currentNameHash = hash;
+        currentNameHashed = true;
+    }
+
+    public byte[] getRawBytes() {
+        byte[] bytes = new byte[currentBytesLength];
+        System.arraycopy(docBytes, currentIndex, bytes, 0, currentBytesLength);
+        return bytes;
+    }
+
+    public String getString() throws ParseException {
+        if (currentInCDATA) { // content of CDATA block is plain text
+            final FastStringBuilder sb = new FastStringBuilder(currentBytesLength);
+            for (int i = currentIndex, last = currentIndex + currentBytesLength; i < last; i++) {
+                sb.append((char) docBytes[i]);
+            }
+            return sb.length() == 0 ? null : sb.toString();
+        }
+        try {
+            return ParseUtils.parseString(docBytes, currentIndex, currentBytesLength);
+        } catch (ParseException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public String getStringWithDecoding() throws ParseException {
+        if (currentInCDATA) { // content of CDATA block is plain text
+            return currentBytesLength == 0 ? null : new String(docBytes, currentIndex, currentBytesLength, charset);
+        }
+        try {
+            if (currentAscii && isAsciiCompatible()) { // ASCII bytes are the same in this charset, need not to be decoded
+                return ParseUtils.parseString(docBytes, currentIndex, currentBytesLength);
+            }
+            return ParseUtils.parseStringWithDecoding(docBytes, currentIndex, currentBytesLength, charset);
+        } catch (ParseException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    /**
+     * check whether charset of document is compatible with ASCII, the result is kept until charset changes
+     */
+    private boolean isAsciiCompatible() {
+        if (asciiCheckedCharset != charset) {
+            asciiCompatible = ParseUtils.isAsciiCompatible(charset);
+            asciiCheckedCharset = charset;
+        }
+        return asciiCompatible;
+    }
+
+    public CharSequence getCharSequence() throws ParseException {
+        return decodeText();
+    }
+
+    public int getText(char[] dest, int offset) throws ParseException {
+        FastCharSequence text = decodeText();
+        if (offset < 0 || dest.length - offset < text.length()) {
+            throw new IndexOutOfBoundsException("need " + text.length() + " chars from offset " + offset
+                    + ", but destination length is " + dest.length);
+        }
+        return text.getChars(dest, offset);
+    }
+
+    public void appendTo(Appendable appendable) throws ParseException {
+        try {
+            decodeText().appendTo(appendable);
+        } catch (IOException e) {
+            throw ParseException.ioException(e);
+        }
+    }
+
+    public byte[] getBase64Bytes() throws ParseException {
+        return getBinaryBytes(false);
+    }
+
+    public int readBase64(OutputStream out) throws ParseException {
+        return readBinary(false, out);
+    }
+
+    public byte[] getHexBytes() throws ParseException {
+        return getBinaryBytes(true);
+    }
+
+    public int readHex(OutputStream out) throws ParseException {
+        return readBinary(true, out);
+    }
+
+    /**
+     * decode the whole current text into binary scratch, then copy it out
+     *
+     * @param hex true for hex text, false for base64 text
+     * @return decoded bytes
+     * @throws ParseException
+     */
+    private byte[] getBinaryBytes(boolean hex) throws ParseException {
+        final BinaryDecoder decoder = binaryDecoder(hex);
+        byte[] bytes = docBytes;
+        int begin = currentIndex;
+        int length = currentBytesLength;
+        if (currentHasEntityReference) {
+            bytes = resolveBinaryText();
+            begin = 0;
+            length = bytes.length;
+        }
+        final int capacity = decoder.maxDecodedLength(length) + 2;
+        if (binaryScratch == null || binaryScratch.length < capacity) {
+            binaryScratch = new byte[Math.max(capacity, BINARY_BLOCK_SIZE)];
+        }
+        try {
+            int count = decoder.decode(bytes, begin, length, binaryScratch, 0);
+            if (!hasMoreText()) {
+                count += decoder.end(binaryScratch, count);
+            }
+            byte[] result = new byte[count];
+            System.arraycopy(binaryScratch, 0, result, 0, count);
+            return result;
+        } catch (ParseException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    /**
+     * decode current text block by block, and write decoded bytes into output stream
+     *
+     * @param hex true for hex text, false for base64 text
+     * @param out output stream
+     * @return count of bytes written
+     * @throws ParseException
+     */
+    private int readBinary(boolean hex, OutputStream out) throws ParseException {
+        final BinaryDecoder decoder = binaryDecoder(hex);
+        byte[] bytes = docBytes;
+        int begin = currentIndex;
+        int length = currentBytesLength;
+        if (currentHasEntityReference) {
+            bytes = resolveBinaryText();
+            begin = 0;
+            length = bytes.length;
+        }
+        if (binaryScratch == null || binaryScratch.length < BINARY_BLOCK_SIZE) {
+            binaryScratch = new byte[BINARY_BLOCK_SIZE];
+        }
+        final byte[] scratch = binaryScratch;
+        final int blockLength = BINARY_BLOCK_SIZE / 2; // decoded bytes of a block always fit in scratch
+        int total = 0;
+        try {
+            for (int i = begin, end = begin + length; i < end; i += blockLength) {
+                int count = decoder.decode(bytes, i, Math.min(blockLength, end - i), scratch, 0);
+                out.write(scratch, 0, count);
+                total += count;
+            }
+            if (hasMoreText()) { // the rest bytes will be decoded with next chunk
+                return total;
+            }
+            int count = decoder.end(scratch, 0);
+            out.write(scratch, 0, count);
+            return total + count;
+        } catch (ParseException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        } catch (IOException e) {
+            throw ParseException.ioException(e);
+        }
+    }
+
+    /**
+     * get the binary decoder, it's reset for a new text, and keeps the state of previous chunk for a continued text chunk
+     */
+    private BinaryDecoder binaryDecoder(boolean hex) {
+        if (binaryDecoder == null) {
+            binaryDecoder = new BinaryDecoder();
+        } else if (currentTextContinued) {
+            return binaryDecoder;
+        }
+        return binaryDecoder.begin(hex);
+    }
+
+    /**
+     * binary text with entity reference is rare, resolve entity references and CDATA blocks by parsing string
+     *
+     * @return text bytes without entity reference, non ISO-8859-1 chars are kept as illegal bytes
+     * @throws ParseException
+     */
+    private byte[] resolveBinaryText() throws ParseException {
+        final String text = getString();
+        final byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Math.min(text.charAt(i), 0xFF);
+        }
+        return bytes;
+    }
+
+    /**
+     * decode current bytes into the reusable text holder, only once for each token
+     *
+     * @return decoded text
+     * @throws ParseException
+     */
+    private FastCharSequence decodeText() throws ParseException {
+        if (text == null) {
+            text = new FastCharSequence();
+        } else if (currentTextDecoded) {
+            return text;
+        }
+        try {
+            final Charset textCharset = charset != null ? charset : DEFAULT_CHARSET;
+            if (currentInCDATA) {
+                text.decodeCDATA(docBytes, currentIndex, currentBytesLength, textCharset);
+            } else {
+                text.decode(docBytes, currentIndex, currentBytesLength, textCharset);
+            }
+        } catch (ParseException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+        currentTextDecoded = true;
+        return text;
+    }
+
+    public short getShort() throws NumberFormatException {
+        try {
+            return ParseUtils.parseShort(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public int getInt() throws NumberFormatException {
+        try {
+            return ParseUtils.parseInt(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public long getLong() throws NumberFormatException {
+        try {
+            return ParseUtils.parseLong(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public float getFloat() throws NumberFormatException {
+        try {
+            return ParseUtils.parseFloat(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public double getDouble() throws NumberFormatException {
+        try {
+            return ParseUtils.parseDouble(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public boolean getBoolean() throws NumberFormatException {
+        try {
+            return ParseUtils.parseBoolean(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public byte getByte() throws NumberFormatException {
+        try {
+            return ParseUtils.parseByte(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public char getChar() throws ParseException {
+        if (currentBytesLength == 1 && docBytes[currentIndex] >= 0) { // single ASCII byte
+            return (char) docBytes[currentIndex];
+        }
+        final CharSequence text = decodeText();
+        if (text.length() != 1) {
+            throw ParseException.formatError("need exactly one char, but found " + text.length(), this);
+        }
+        return text.charAt(0);
+    }
+
+    public BigDecimal getBigDecimal() throws NumberFormatException {
+        try {
+            return ParseUtils.parseBigDecimal(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public long getEpochMillis() throws NumberFormatException {
+        try {
+            return ParseUtils.parseEpochMillis(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
+
+    public long getEpochDay() throws NumberFormatException {
+        try {
+            return ParseUtils.parseEpochDay(docBytes, currentIndex, currentBytesLength);
+        } catch (NumberFormatException e) {
+            e.setRowAndColumn(this);
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * throughput of a batch parsed by FastXmlBatch
+ * Created by weager on 2017/01/07.
+ */
+public final class BatchReport {
+    private final int documentCount;
+    private final long byteCount;
+    private final long elapsedNanos;
+    private final int workers;
+
+    BatchReport(int documentCount, long byteCount, long elapsedNanos, int workers) {
+        this.documentCount = documentCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+        this.workers = workers;
+    }
+
+    /**
+     * @return count of documents handled
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return count of bytes of documents, bytes of input stream are the bytes read by parser
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return wall time of batch in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return count of workers of batch
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @return documents per second
+     */
+    public double getDocumentsPerSecond() {
+        return elapsedNanos == 0 ? 0 : documentCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return bytes per second
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : byteCount * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d documents, %d bytes in %.3f ms by %d workers: %.1f documents/s, %.2f MB/s",
+                documentCount, byteCount, elapsedNanos / 1e6, workers, getDocumentsPerSecond(), getBytesPerSecond() / (1024 * 1024));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * Buffer policy of the parsers reading from input stream or file: initial size, growth factor, max size,
+ * and the max size of buffer retained for next document.
+ * Buffer grows only when a token can not fit in it, if the token is larger than max size, BufferLimitException will be thrown.
+ * A policy is immutable, so it can be shared by parsers.
+ * Created by weager on 2016/12/31.
+ */
+public final class BufferPolicy {
+    /**
+     * min size of buffer, a smaller size will be raised to it
+     */
+    public final static int MIN_BUFFER_SIZE = 256;
+
+    /**
+     * initial size 8KB, grows by 1.75 times without limit, and the grown buffer is retained for next document
+     */
+    public final static BufferPolicy DEFAULT = new BufferPolicy(AbstractFastXmlParser.DEFAULT_BUFFER_SIZE, 1.75, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final int initialSize;
+    private final double growthFactor;
+    private final int maxSize;
+    private final int retainedSize;
+
+    /**
+     * create a buffer policy
+     *
+     * @param initialSize  size of buffer at the beginning of each document
+     * @param growthFactor buffer grows by this factor when a token can not fit in it, should be greater than 1
+     * @param maxSize      max size of buffer, should not be less than initialSize
+     * @param retainedSize buffer larger than this size will be released after document, and a new buffer of initial size will be used
+     */
+    public BufferPolicy(int initialSize, double growthFactor, int maxSize, int retainedSize) {
+        if (initialSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("initial size should not be less than " + MIN_BUFFER_SIZE);
+        }
+        if (!(growthFactor > 1)) {
+            throw new IllegalArgumentException("growth factor should be greater than 1");
+        }
+        if (maxSize < initialSize) {
+            throw new IllegalArgumentException("max size should not be less than initial size");
+        }
+        this.initialSize = initialSize;
+        this.growthFactor = growthFactor;
+        this.maxSize = maxSize;
+        this.retainedSize = Math.max(retainedSize, initialSize);
+    }
+
+    /**
+     * create a policy with the same growth factor and sizes, except the initial size
+     *
+     * @param initialSize size of buffer at the beginning of each document, it's kept between MIN_BUFFER_SIZE and max size
+     * @return buffer policy
+     */
+    public BufferPolicy withInitialSize(int initialSize) {
+        initialSize = Math.min(Math.max(initialSize, MIN_BUFFER_SIZE), maxSize);
+        if (initialSize == this.initialSize) {
+            return this;
+        }
+        return new BufferPolicy(initialSize, growthFactor, maxSize, retainedSize);
+    }
+
+    /**
+     * size of grown buffer
+     *
+     * @param size current size of buffer
+     * @return new size not greater than max size, or current size if it can not grow any more
+     */
+    int grow(int size) {
+        long newSize = Math.max((long) (size * growthFactor), size + 1L);
+        return (int) Math.min(newSize, maxSize);
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public double getGrowthFactor() {
+        return growthFactor;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getRetainedSize() {
+        return retainedSize;
+    }
+}
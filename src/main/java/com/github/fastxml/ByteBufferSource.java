@@ -0,0 +1,42 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Byte source which copies bytes from a ByteBuffer block by block, such as a direct ByteBuffer.
+ * The position of user's ByteBuffer will not be changed.
+ * Created by weager on 2016/12/22.
+ */
+class ByteBufferSource extends ByteSource {
+    private final ByteBuffer buffer;
+
+    ByteBufferSource(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    int read(byte[] bytes, int offset, int length) {
+        int remaining = buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+        int count = Math.min(length, remaining);
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+}
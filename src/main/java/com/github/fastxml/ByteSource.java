@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.io.IOException;
+
+/**
+ * Source of document bytes, which are read into the buffer of parser block by block.
+ * A document which is already in a heap byte array doesn't need a source, it's parsed in place.
+ * Created by weager on 2016/12/22.
+ */
+abstract class ByteSource {
+
+    /**
+     * read bytes into buffer
+     *
+     * @param buffer buffer to save bytes
+     * @param offset the start offset in buffer
+     * @param length max count of bytes to read
+     * @return count of bytes which have been read, or -1 if no more bytes
+     * @throws IOException
+     */
+    abstract int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * a non-blocking source returns 0 from read() when no bytes are available yet, instead of waiting for them,
+     * then parser stops parsing current event and waits for more bytes.
+     *
+     * @return true if it's a non-blocking source
+     */
+    boolean isNonBlocking() {
+        return false;
+    }
+
+    /**
+     * release the resource of source, it will be called when all bytes have been read
+     *
+     * @throws IOException
+     */
+    void close() throws IOException {
+    }
+}
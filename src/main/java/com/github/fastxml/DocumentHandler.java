@@ -0,0 +1,35 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * handler of documents, which are independent documents parsed by FastXmlBatch
+ * Created by weager on 2017/01/07.
+ */
+public interface DocumentHandler {
+
+    /**
+     * handle a document, next() has not been called. The parser will be reset and reused for other documents after returning,
+     * so it should not be kept. It may be called by different threads at the same time.
+     *
+     * @param documentIndex index of document in the sources of batch
+     * @param parser        the parser of document
+     * @throws ParseException
+     */
+    void handle(int documentIndex, FastXmlParser parser) throws ParseException;
+}
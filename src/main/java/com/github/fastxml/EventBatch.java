@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * a batch of events published by FastXmlPublisher.events(), START_DOCUMENT and END_DOCUMENT are not included.
+ * Value of event is the name for START_TAG, END_TAG, END_TAG_WITHOUT_TEXT and ATTRIBUTE_NAME,
+ * and the decoded string for ATTRIBUTE_VALUE and TEXT.
+ * Created by weager on 2017/01/09.
+ */
+public final class EventBatch {
+    private final int[] types; // event | depth << 4
+    private final String[] values;
+    private int size;
+
+    EventBatch(int capacity) {
+        this.types = new int[capacity];
+        this.values = new String[capacity];
+    }
+
+    void add(int event, int depth, String value) {
+        types[size] = event | depth << 4;
+        values[size] = value;
+        size++;
+    }
+
+    boolean isFull() {
+        return size == types.length;
+    }
+
+    /**
+     * @return count of events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index of event in batch
+     * @return event type
+     */
+    public int getEvent(int i) {
+        checkIndex(i);
+        return types[i] & 0xF;
+    }
+
+    /**
+     * @param i index of event in batch
+     * @return depth of event, the same as FastXmlParser.getDepth()
+     */
+    public int getDepth(int i) {
+        checkIndex(i);
+        return types[i] >> 4;
+    }
+
+    /**
+     * @param i index of event in batch
+     * @return name of tag or attribute, or decoded string of attribute value or text, may be null for empty text
+     */
+    public String getValue(int i) {
+        checkIndex(i);
+        return values[i];
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index: " + i + ", size: " + size);
+        }
+    }
+}
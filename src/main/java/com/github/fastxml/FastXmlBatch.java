@@ -0,0 +1,272 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parse lots of independent documents by workers of an executor.
+ * A source of document can be byte[], ByteBuffer, File or InputStream, files are read through memory mapped windows,
+ * and input streams are closed after parsing.
+ * Each worker keeps its own parsers and their buffers for all documents it parses, and claims the next document
+ * from the shared index of batch when it's free, so that a worker with small documents takes more of them.
+ * Any Executor can be used, such as a thread pool, a ForkJoinPool, or an executor of virtual threads on newer JDKs.
+ * The first failure stops the batch, documents not claimed yet will not be parsed.
+ * An instance can be shared by threads after setting, the executor is not shut down by it.
+ * Created by weager on 2017/01/07.
+ */
+public final class FastXmlBatch {
+    private final Executor executor;
+    private final int workers;
+    private Charset charset;
+    private BufferPolicy bufferPolicy = BufferPolicy.DEFAULT;
+
+    /**
+     * @param executor executor of workers
+     * @param workers  count of workers, it's usually the count of processors
+     */
+    public FastXmlBatch(Executor executor, int workers) {
+        if (executor == null || workers < 1) {
+            throw new IllegalArgumentException("executor should not be null, workers should be positive");
+        }
+        this.executor = executor;
+        this.workers = workers;
+    }
+
+    /**
+     * @param charset if null, charset specified in document header will be used
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * buffer policy of the parsers for ByteBuffer, File and InputStream, the max size of buffer limits the size of token,
+     * and buffer larger than retained size is released after each document.
+     *
+     * @param bufferPolicy buffer policy
+     */
+    public void setBufferPolicy(BufferPolicy bufferPolicy) {
+        this.bufferPolicy = bufferPolicy == null ? BufferPolicy.DEFAULT : bufferPolicy;
+    }
+
+    /**
+     * parse all documents by workers, and wait for them
+     *
+     * @param sources sources of documents, which are byte[], ByteBuffer, File or InputStream
+     * @param handler handler of documents
+     * @return throughput of batch
+     * @throws ParseException the first failure of workers
+     */
+    public BatchReport run(Collection<?> sources, DocumentHandler handler) throws ParseException {
+        final Object[] documents = sources.toArray();
+        for (Object document : documents) {
+            if (!(document instanceof byte[] || document instanceof ByteBuffer || document instanceof File || document instanceof InputStream)) {
+                throw new IllegalArgumentException("unsupported source of document: " + document);
+            }
+        }
+        final long start = System.nanoTime();
+        final Run run = new Run(documents, handler);
+        final int count = Math.min(workers, documents.length);
+        final List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(count);
+        for (int i = 0; i < count; i++) {
+            final FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                public Void call() {
+                    run.work();
+                    return null;
+                }
+            });
+            tasks.add(task);
+            executor.execute(task);
+        }
+        for (FutureTask<Void> task : tasks) {
+            Workers.get(task);
+        }
+        final Throwable failure = run.failure.get();
+        if (failure != null) {
+            throw Workers.rethrow(failure);
+        }
+        return new BatchReport(documents.length, run.byteCount.get(), System.nanoTime() - start, count);
+    }
+
+    /**
+     * state of a run
+     */
+    private final class Run {
+        private final Object[] documents;
+        private final DocumentHandler handler;
+        private final AtomicInteger nextIndex = new AtomicInteger(); // index of the next document to be claimed
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private final AtomicLong byteCount = new AtomicLong();
+
+        Run(Object[] documents, DocumentHandler handler) {
+            this.documents = documents;
+            this.handler = handler;
+        }
+
+        /**
+         * loop of worker, parse documents until all documents are claimed, or any worker failed
+         */
+        void work() {
+            final Parsers parsers = new Parsers();
+            try {
+                for (int i = nextIndex.getAndIncrement(); i < documents.length && failure.get() == null; i = nextIndex.getAndIncrement()) {
+                    byteCount.addAndGet(parse(i, documents[i], parsers));
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * parse a document by the parser of its type, and reset the parser, which closes the input
+         *
+         * @return count of bytes of document
+         */
+        private long parse(int documentIndex, Object document, Parsers parsers) throws ParseException {
+            if (document instanceof byte[]) {
+                final FastXmlParser4ByteArray parser = parsers.byteArray();
+                try {
+                    parser.setInput((byte[]) document, charset);
+                    handler.handle(documentIndex, parser);
+                } finally {
+                    parser.reset();
+                }
+                return ((byte[]) document).length;
+            } else if (document instanceof ByteBuffer) {
+                final FastXmlParser4ByteBuffer parser = parsers.byteBuffer();
+                try {
+                    parser.setInput((ByteBuffer) document, charset);
+                    handler.handle(documentIndex, parser);
+                } finally {
+                    parser.reset();
+                }
+                return ((ByteBuffer) document).remaining();
+            } else if (document instanceof File) {
+                final FastXmlParser4MappedFile parser = parsers.file();
+                try {
+                    parser.setInput((File) document, charset);
+                    handler.handle(documentIndex, parser);
+                } finally {
+                    parser.reset();
+                }
+                return ((File) document).length();
+            } else {
+                final FastXmlParser4InputStream parser = parsers.inputStream();
+                final CountingInputStream is = new CountingInputStream((InputStream) document);
+                try {
+                    parser.setInput(is, bufferPolicy, charset);
+                    handler.handle(documentIndex, parser);
+                } finally {
+                    parser.reset(); // closes the input stream
+                }
+                return is.count;
+            }
+        }
+    }
+
+    /**
+     * parsers of a worker, created when the first document of their type comes
+     */
+    private final class Parsers {
+        private FastXmlParser4ByteArray byteArrayParser;
+        private FastXmlParser4ByteBuffer byteBufferParser;
+        private FastXmlParser4MappedFile fileParser;
+        private FastXmlParser4InputStream inputStreamParser;
+
+        FastXmlParser4ByteArray byteArray() {
+            if (byteArrayParser == null) {
+                byteArrayParser = new FastXmlParser4ByteArray();
+            }
+            return byteArrayParser;
+        }
+
+        FastXmlParser4ByteBuffer byteBuffer() {
+            if (byteBufferParser == null) {
+                byteBufferParser = new FastXmlParser4ByteBuffer();
+                byteBufferParser.setBufferPolicy(bufferPolicy);
+            }
+            return byteBufferParser;
+        }
+
+        FastXmlParser4MappedFile file() {
+            if (fileParser == null) {
+                fileParser = new FastXmlParser4MappedFile();
+                fileParser.setBufferPolicy(bufferPolicy);
+            }
+            return fileParser;
+        }
+
+        FastXmlParser4InputStream inputStream() {
+            if (inputStreamParser == null) {
+                inputStreamParser = new FastXmlParser4InputStream();
+            }
+            return inputStreamParser;
+        }
+    }
+
+    /**
+     * counts bytes read from input stream
+     */
+    private final static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -17,8 +17,11 @@ package com.github.fastxml;
 
 import com.github.fastxml.exception.ParseException;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 
 /**
  * Created by weager on 2016/06/07.
@@ -48,6 +51,29 @@ public class FastXmlFactory {
         return parser;
     }
 
+    /**
+     * create FastXmlParser for ByteBuffer with charset specified in document header
+     * @param buffer ByteBuffer contains the whole document from position to limit
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public static FastXmlParser newInstance(ByteBuffer buffer) throws ParseException {
+        return newInstance(buffer, null);
+    }
+
+    /**
+     * create FastXmlParser for ByteBuffer with charset, heap ByteBuffer is parsed in place and direct ByteBuffer is copied block by block
+     * @param buffer ByteBuffer contains the whole document from position to limit
+     * @param charset if null, charset specified in document header will be used
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public static FastXmlParser newInstance(ByteBuffer buffer, Charset charset) throws ParseException {
+        FastXmlParser4ByteBuffer parser = new FastXmlParser4ByteBuffer();
+        parser.setInput(buffer, charset);
+        return parser;
+    }
+
     /**
      * create FastXmlParser for input stream
      * @param is input stream
@@ -77,7 +103,7 @@ public class FastXmlFactory {
      * @throws ParseException
      */
     public static FastXmlParser newInstance(InputStream is, int bufferSize) throws ParseException {
-        return newInstance(is, bufferSize);
+        return newInstance(is, bufferSize, null);
     }
 
     /**
@@ -94,4 +120,81 @@ public class FastXmlFactory {
         return parser;
     }
 
+    /**
+     * create FastXmlParser with charset and buffer policy, which limits the max size of buffer
+     * @param is input stream
+     * @param bufferPolicy initial size, growth and max size of buffer
+     * @param charset if null, charset specified in document header will be used
+     * @return
+     * @throws ParseException
+     */
+    public static FastXmlParser newInstance(InputStream is, BufferPolicy bufferPolicy, Charset charset) throws ParseException {
+        FastXmlParser4InputStream parser = new FastXmlParser4InputStream();
+        parser.setInput(is, bufferPolicy, charset);
+        return parser;
+    }
+
+    /**
+     * create FastXmlParser for file, the file is read through memory mapped windows
+     * @param file input file
+     * @return
+     * @throws ParseException
+     */
+    public static FastXmlParser newInstance(File file) throws ParseException {
+        return newInstance(file, null);
+    }
+
+    /**
+     * create FastXmlParser for file with charset, the file is read through memory mapped windows
+     * @param file input file
+     * @param charset if null, charset specified in document header will be used
+     * @return
+     * @throws ParseException
+     */
+    public static FastXmlParser newInstance(File file, Charset charset) throws ParseException {
+        FastXmlParser4MappedFile parser = new FastXmlParser4MappedFile();
+        parser.setInput(file, charset);
+        return parser;
+    }
+
+    /**
+     * create a non-blocking parser, bytes of document are fed into it by feed()
+     * @param charset if null, charset specified in document header will be used
+     * @return FastXmlParser4Async instance
+     * @throws ParseException
+     */
+    public static FastXmlParser4Async newAsyncInstance(Charset charset) throws ParseException {
+        FastXmlParser4Async parser = new FastXmlParser4Async();
+        parser.setInput(charset);
+        return parser;
+    }
+
+    /**
+     * create a thread-safe pool of parsers, which reuses parsers and their buffers for lots of small documents
+     * @return FastXmlParserPool instance
+     */
+    public static FastXmlParserPool newPool() {
+        return new FastXmlParserPool();
+    }
+
+    /**
+     * create a thread-safe pool of parsers, which reuses parsers and their buffers for lots of small documents
+     * @param capacity max count of idle parsers kept for each type of parser
+     * @param maxRetainedBufferSize buffer larger than this size will be released when the parser is released
+     * @return FastXmlParserPool instance
+     */
+    public static FastXmlParserPool newPool(int capacity, int maxRetainedBufferSize) {
+        return new FastXmlParserPool(capacity, maxRetainedBufferSize);
+    }
+
+    /**
+     * create a batch which parses independent documents by workers of executor, each worker reuses its own parsers
+     * @param executor executor of workers, such as a thread pool or a ForkJoinPool
+     * @param workers count of workers
+     * @return FastXmlBatch instance
+     */
+    public static FastXmlBatch newBatch(Executor executor, int workers) {
+        return new FastXmlBatch(executor, workers);
+    }
+
 }
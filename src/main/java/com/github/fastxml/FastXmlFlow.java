@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * Interfaces of reactive streams, the same as java.util.concurrent.Flow of Java 9, which is not available in Java 6.
+ * A Flow.Subscriber can be adapted to FastXmlFlow.Subscriber by delegating each method, and so does Subscription.
+ * Created by weager on 2017/01/09.
+ */
+public final class FastXmlFlow {
+
+    private FastXmlFlow() {
+    }
+
+    /**
+     * producer of items received by subscribers
+     *
+     * @param <T> type of item
+     */
+    public interface Publisher<T> {
+
+        /**
+         * add a subscriber, onSubscribe() will be called at first, and onError() will be called if it can not be subscribed
+         *
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * receiver of items, the methods are called in order by one thread at a time
+     *
+     * @param <T> type of item
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * called before any other method, no item will be received until subscription.request() is called
+         *
+         * @param subscription the subscription
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * receive the next item, the count of items never exceeds the count requested
+         *
+         * @param item the item
+         */
+        void onNext(T item);
+
+        /**
+         * called when the subscription failed, no more method will be called
+         *
+         * @param throwable the failure
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * called when all items have been received, no more method will be called
+         */
+        void onComplete();
+    }
+
+    /**
+     * link of a publisher and a subscriber
+     */
+    public interface Subscription {
+
+        /**
+         * request n more items, the items are received by onNext() later or at once
+         *
+         * @param n count of items, should be positive, Long.MAX_VALUE means unbounded
+         */
+        void request(long n);
+
+        /**
+         * stop receiving items, some items may be received before it takes effect
+         */
+        void cancel();
+    }
+}
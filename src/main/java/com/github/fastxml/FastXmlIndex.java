@@ -0,0 +1,522 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+import com.github.fastxml.util.ParseUtils;
+
+import java.nio.charset.Charset;
+
+/**
+ * A structural index of a document in byte array, which is built by one pass of FastXmlParser4ByteArray.
+ * Each start tag, attribute name, attribute value and text is a record of RECORD_SIZE ints in a packed tape:
+ * type and depth, offset, length, parent, next and first child, so that a Cursor can move to parent, first child
+ * and next sibling in O(1) without parsing the document again.
+ * The index refers to the byte array of document, which should not be modified.
+ * An index is immutable after building, so it can be shared by cursors in different threads.
+ * Created by weager on 2017/01/04.
+ */
+public final class FastXmlIndex {
+    /**
+     * count of ints for each record
+     */
+    public final static int RECORD_SIZE = 6;
+    /**
+     * index returned when there is no such record
+     */
+    public final static int NONE = -1;
+
+    // fields of record
+    private final static int TYPE = 0; // event type in the low 3 bits, ASCII flag in bit 3, and depth above them
+    private final static int OFFSET = 1;
+    private final static int LENGTH = 2;
+    private final static int PARENT = 3; // parent element of element, or element of attribute and text
+    private final static int NEXT = 4; // next sibling of element, or next attribute and text of the same element
+    private final static int FIRST_CHILD = 5; // first child of element
+    private final static int TYPE_MASK = 0x7;
+    private final static int ASCII_FLAG = 0x8;
+    private final static int DEPTH_SHIFT = 4;
+
+    private final byte[] bytes;
+    private Charset charset; // known after the declaration of document is parsed
+    private boolean asciiCompatible; // whether ASCII_FLAG can be trusted, not for stateful charsets such as ISO-2022-JP
+    private int[] tape;
+    private int size; // count of records
+
+    private FastXmlIndex(byte[] bytes, int initialRecords) {
+        this.bytes = bytes;
+        this.tape = new int[Math.max(initialRecords, 16) * RECORD_SIZE];
+    }
+
+    /**
+     * build index of document
+     *
+     * @param bytes the whole document
+     * @return index
+     * @throws ParseException
+     */
+    public static FastXmlIndex build(byte[] bytes) throws ParseException {
+        return build(bytes, null);
+    }
+
+    /**
+     * build index of document
+     *
+     * @param bytes   the whole document
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @return index
+     * @throws ParseException
+     */
+    public static FastXmlIndex build(byte[] bytes, Charset charset) throws ParseException {
+        FastXmlParser4ByteArray parser = new FastXmlParser4ByteArray();
+        parser.setInput(bytes, charset);
+        return build(parser);
+    }
+
+    /**
+     * build index by walking a parser, which can be reused for the next document after building
+     *
+     * @param parser the parser, whose input is set and next() has not been called
+     * @return index
+     * @throws ParseException
+     */
+    public static FastXmlIndex build(FastXmlParser4ByteArray parser) throws ParseException {
+        final byte[] bytes = parser.getDocument();
+        // a record for every 32 bytes at first, it's enough for most documents
+        final FastXmlIndex index = new FastXmlIndex(bytes, (parser.docBytesLength - parser.docBytesOffset) >> 5);
+        int[] elements = new int[16]; // open elements by depth, elements[0] is NONE for the document
+        int[] lastChildren = new int[16]; // last closed child of open elements by depth
+        elements[0] = NONE;
+        lastChildren[0] = NONE;
+        int lastToken = NONE; // last attribute or text of current element
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            switch (event) {
+                case FastXmlParser.START_TAG: {
+                    final int depth = parser.getDepth();
+                    if (depth + 1 >= elements.length) {
+                        elements = grow(elements);
+                        lastChildren = grow(lastChildren);
+                    }
+                    final int parent = elements[depth - 1];
+                    final int record = index.add(event, depth, parser, parent);
+                    if (lastChildren[depth - 1] != NONE) {
+                        index.tape[lastChildren[depth - 1] * RECORD_SIZE + NEXT] = record;
+                    } else if (parent != NONE) {
+                        index.tape[parent * RECORD_SIZE + FIRST_CHILD] = record;
+                    }
+                    lastChildren[depth - 1] = record;
+                    elements[depth] = record;
+                    lastChildren[depth] = NONE;
+                    lastToken = NONE;
+                    break;
+                }
+                case FastXmlParser.ATTRIBUTE_NAME:
+                case FastXmlParser.ATTRIBUTE_VALUE:
+                case FastXmlParser.TEXT: {
+                    final int depth = parser.getDepth();
+                    final int record = index.add(event, depth, parser, elements[depth]);
+                    if (lastToken != NONE) {
+                        index.tape[lastToken * RECORD_SIZE + NEXT] = record;
+                    }
+                    lastToken = record;
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        index.charset = parser.getEncode();
+        index.asciiCompatible = ParseUtils.isAsciiCompatible(index.charset);
+        return index;
+    }
+
+    /**
+     * add a record of current token of parser
+     *
+     * @return index of record
+     */
+    private int add(int type, int depth, AbstractFastXmlParser parser, int parent) {
+        if ((size + 1) * RECORD_SIZE > tape.length) {
+            int[] temp = new int[tape.length * 2];
+            System.arraycopy(tape, 0, temp, 0, size * RECORD_SIZE);
+            tape = temp;
+        }
+        final int i = size * RECORD_SIZE;
+        tape[i + TYPE] = type | (parser.currentAscii ? ASCII_FLAG : 0) | depth << DEPTH_SHIFT;
+        tape[i + OFFSET] = parser.currentIndex;
+        tape[i + LENGTH] = parser.currentBytesLength;
+        tape[i + PARENT] = parent;
+        tape[i + NEXT] = NONE;
+        tape[i + FIRST_CHILD] = NONE;
+        return size++;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] temp = new int[array.length * 2];
+        System.arraycopy(array, 0, temp, 0, array.length);
+        return temp;
+    }
+
+    /**
+     * count of records
+     *
+     * @return count of records
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * charset of document
+     *
+     * @return charset
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * the byte array of document
+     *
+     * @return document
+     */
+    public byte[] getDocument() {
+        return bytes;
+    }
+
+    /**
+     * event type of record: START_TAG, ATTRIBUTE_NAME, ATTRIBUTE_VALUE or TEXT
+     *
+     * @param record index of record
+     * @return event type
+     */
+    public int getType(int record) {
+        return tape[record * RECORD_SIZE + TYPE] & TYPE_MASK;
+    }
+
+    /**
+     * depth of record, the same as FastXmlParser.getDepth() for its event
+     *
+     * @param record index of record
+     * @return depth
+     */
+    public int getDepth(int record) {
+        return tape[record * RECORD_SIZE + TYPE] >>> DEPTH_SHIFT;
+    }
+
+    /**
+     * index of the first byte of record in document
+     *
+     * @param record index of record
+     * @return offset
+     */
+    public int getOffset(int record) {
+        return tape[record * RECORD_SIZE + OFFSET];
+    }
+
+    /**
+     * byte length of record
+     *
+     * @param record index of record
+     * @return length
+     */
+    public int getLength(int record) {
+        return tape[record * RECORD_SIZE + LENGTH];
+    }
+
+    /**
+     * parent element of element, or element of attribute and text
+     *
+     * @param record index of record
+     * @return index of parent, or NONE for root element
+     */
+    public int getParent(int record) {
+        return tape[record * RECORD_SIZE + PARENT];
+    }
+
+    /**
+     * next sibling of element, or next attribute and text of the same element
+     *
+     * @param record index of record
+     * @return index of next record, or NONE
+     */
+    public int getNext(int record) {
+        return tape[record * RECORD_SIZE + NEXT];
+    }
+
+    /**
+     * first child of element
+     *
+     * @param record index of element
+     * @return index of first child, or NONE
+     */
+    public int getFirstChild(int record) {
+        return tape[record * RECORD_SIZE + FIRST_CHILD];
+    }
+
+    /**
+     * first attribute name or text of element, attributes and text follow their element in the tape
+     *
+     * @param record index of element
+     * @return index of first attribute name or text, or NONE
+     */
+    public int getFirstToken(int record) {
+        final int next = record + 1;
+        return next < size && tape[next * RECORD_SIZE + PARENT] == record && getType(next) != FastXmlParser.START_TAG ? next : NONE;
+    }
+
+    /**
+     * compare bytes of record with expected bytes
+     *
+     * @param record      index of record
+     * @param expectBytes expected bytes
+     * @return true if they are the same
+     */
+    public boolean isMatch(int record, byte[] expectBytes) {
+        final int i = record * RECORD_SIZE;
+        final int length = tape[i + LENGTH];
+        if (length != expectBytes.length) {
+            return false;
+        }
+        for (int offset = tape[i + OFFSET], j = 0; j < length; j++) {
+            if (bytes[offset + j] != expectBytes[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * get string of record without decoding, the same as FastXmlParser.getString()
+     *
+     * @param record index of record
+     * @return string of record, null if it's empty
+     * @throws ParseException
+     */
+    public String getString(int record) throws ParseException {
+        final int i = record * RECORD_SIZE;
+        return ParseUtils.parseString(bytes, tape[i + OFFSET], tape[i + LENGTH]);
+    }
+
+    /**
+     * get decoded string of record, the same as FastXmlParser.getStringWithDecoding()
+     *
+     * @param record index of record
+     * @return string of record, null if it's empty
+     * @throws ParseException
+     */
+    public String getStringWithDecoding(int record) throws ParseException {
+        final int i = record * RECORD_SIZE;
+        if ((tape[i + TYPE] & ASCII_FLAG) != 0 && asciiCompatible) { // ASCII bytes need not to be decoded
+            return ParseUtils.parseString(bytes, tape[i + OFFSET], tape[i + LENGTH]);
+        }
+        return ParseUtils.parseStringWithDecoding(bytes, tape[i + OFFSET], tape[i + LENGTH], charset);
+    }
+
+    /**
+     * create a cursor on the root element
+     *
+     * @return cursor
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * A cursor moving among elements of an index, it's cheap and not thread safe, create one for each thread.
+     */
+    public final static class Cursor {
+        private final FastXmlIndex index;
+        private int element;
+
+        private Cursor(FastXmlIndex index) {
+            this.index = index;
+            this.element = index.size > 0 ? 0 : NONE;
+        }
+
+        /**
+         * index of current element record, which can be used by moveTo() later
+         *
+         * @return index of current element
+         */
+        public int getElement() {
+            return element;
+        }
+
+        /**
+         * move to an element record
+         *
+         * @param element index of element record
+         */
+        public void moveTo(int element) {
+            if (element < 0 || element >= index.size || index.getType(element) != FastXmlParser.START_TAG) {
+                throw new IllegalArgumentException("not an element: " + element);
+            }
+            this.element = element;
+        }
+
+        /**
+         * move to root element
+         */
+        public void toRoot() {
+            element = index.size > 0 ? 0 : NONE;
+        }
+
+        /**
+         * move to parent element
+         *
+         * @return false if current element is root, and cursor is not moved
+         */
+        public boolean toParent() {
+            return move(index.getParent(element));
+        }
+
+        /**
+         * move to first child element
+         *
+         * @return false if current element has no child, and cursor is not moved
+         */
+        public boolean toFirstChild() {
+            return move(index.getFirstChild(element));
+        }
+
+        /**
+         * move to first child element with the name
+         *
+         * @param name expected name
+         * @return false if there is no such child, and cursor is not moved
+         */
+        public boolean toFirstChild(byte[] name) {
+            int child = index.getFirstChild(element);
+            while (child != NONE && !index.isMatch(child, name)) {
+                child = index.getNext(child);
+            }
+            return move(child);
+        }
+
+        /**
+         * move to next sibling element
+         *
+         * @return false if current element is the last child, and cursor is not moved
+         */
+        public boolean toNextSibling() {
+            return move(index.getNext(element));
+        }
+
+        /**
+         * move to next sibling element with the name
+         *
+         * @param name expected name
+         * @return false if there is no such sibling, and cursor is not moved
+         */
+        public boolean toNextSibling(byte[] name) {
+            int sibling = index.getNext(element);
+            while (sibling != NONE && !index.isMatch(sibling, name)) {
+                sibling = index.getNext(sibling);
+            }
+            return move(sibling);
+        }
+
+        private boolean move(int target) {
+            if (target == NONE) {
+                return false;
+            }
+            element = target;
+            return true;
+        }
+
+        /**
+         * depth of current element, root element is 1
+         *
+         * @return depth
+         */
+        public int getDepth() {
+            return index.getDepth(element);
+        }
+
+        /**
+         * compare tag name of current element
+         *
+         * @param name expected name
+         * @return true if they are the same
+         */
+        public boolean isMatch(byte[] name) {
+            return index.isMatch(element, name);
+        }
+
+        /**
+         * tag name of current element
+         *
+         * @return tag name
+         * @throws ParseException
+         */
+        public String getName() throws ParseException {
+            return index.getString(element);
+        }
+
+        /**
+         * decoded text of current element
+         *
+         * @return text, null if current element has no text
+         * @throws ParseException
+         */
+        public String getText() throws ParseException {
+            final int text = getTextRecord();
+            return text == NONE ? null : index.getStringWithDecoding(text);
+        }
+
+        /**
+         * record of text of current element, text is the last token of element
+         *
+         * @return index of text record, or NONE
+         */
+        public int getTextRecord() {
+            int token = index.getFirstToken(element);
+            while (token != NONE && index.getType(token) != FastXmlParser.TEXT) {
+                token = index.getNext(token);
+            }
+            return token;
+        }
+
+        /**
+         * decoded value of attribute of current element
+         *
+         * @param name attribute name
+         * @return value, null if there is no such attribute or the value is empty
+         * @throws ParseException
+         */
+        public String getAttribute(byte[] name) throws ParseException {
+            final int value = getAttributeRecord(name);
+            return value == NONE ? null : index.getStringWithDecoding(value);
+        }
+
+        /**
+         * record of attribute value of current element
+         *
+         * @param name attribute name
+         * @return index of attribute value record, or NONE
+         */
+        public int getAttributeRecord(byte[] name) {
+            for (int token = index.getFirstToken(element); token != NONE; token = index.getNext(token)) {
+                if (index.getType(token) == FastXmlParser.ATTRIBUTE_NAME && index.isMatch(token, name)) {
+                    return index.getNext(token);
+                }
+            }
+            return NONE;
+        }
+    }
+}
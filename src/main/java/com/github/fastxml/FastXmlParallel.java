@@ -0,0 +1,272 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+import com.github.fastxml.util.ByteUtils;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parse repeated elements (records) of a large document in byte array by several threads.
+ * Records are the elements with specific name which are not inside another record, such as "order" of
+ * "&lt;orders&gt;&lt;order&gt;...&lt;/order&gt;...&lt;/orders&gt;". The document is split into chunks, and each
+ * chunk is parsed in two passes:
+ * <li>1. find out the records beginning in the chunk by skipCurrentTag(). A chunk begins at the first "&lt;name"
+ * after its boundary speculatively, which may be in a comment, a CDATA block or another record.
+ * So the beginning of a chunk is checked by the end of previous chunk, and a wrong chunk is found out again
+ * from the right beginning.</li>
+ * <li>2. parse each record by a reused FastXmlParser4ByteArray, and pass it to RecordHandler.</li>
+ * When a task fails, the other tasks stop at the next record, and the first failure is thrown after all tasks finish,
+ * so RecordHandler is never called after parseRecords() returns or throws.
+ * An instance can be shared by threads, the executor is not shut down by it.
+ * Created by weager on 2017/01/05.
+ */
+public final class FastXmlParallel {
+    /**
+     * default minimal size of chunk, a document smaller than it is parsed by one task
+     */
+    public final static int DEFAULT_MIN_CHUNK_SIZE = 64 * 1024;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int minChunkSize;
+
+    /**
+     * @param executor    executor of tasks
+     * @param parallelism max count of chunks, usually the count of threads of executor
+     */
+    public FastXmlParallel(ExecutorService executor, int parallelism) {
+        this(executor, parallelism, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * @param executor     executor of tasks
+     * @param parallelism  max count of chunks, usually the count of threads of executor
+     * @param minChunkSize minimal size of chunk
+     */
+    public FastXmlParallel(ExecutorService executor, int parallelism, int minChunkSize) {
+        if (executor == null || parallelism < 1 || minChunkSize < 1) {
+            throw new IllegalArgumentException("executor should not be null, parallelism and minChunkSize should be positive");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.minChunkSize = minChunkSize;
+    }
+
+    /**
+     * parse records in parallel, records may be handled in any order
+     *
+     * @param bytes      the whole document
+     * @param charset    if param charset is null, then encoding in document will be used;
+     *                   if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @param recordName ASCII name of record element
+     * @param handler    handler of records
+     * @return count of records
+     * @throws ParseException
+     */
+    public int parseRecords(final byte[] bytes, Charset charset, String recordName, final RecordHandler handler) throws ParseException {
+        if (bytes == null || bytes.length == 0) {
+            throw ParseException.emptyDocument();
+        }
+        final byte[] name = new byte[recordName.length()];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (byte) recordName.charAt(i);
+        }
+        // charset declared in document is used by records
+        final FastXmlParser4ByteArray declarationParser = new FastXmlParser4ByteArray();
+        declarationParser.setInput(bytes, charset);
+        declarationParser.next();
+        final Charset documentCharset = declarationParser.getEncode();
+
+        // pass 1: find out records in chunks, every chunk except the first one begins speculatively
+        final int chunkCount = (int) Math.max(1, Math.min(parallelism, bytes.length / (long) minChunkSize));
+        final Chunk[] chunks = new Chunk[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i] = new Chunk((int) ((long) bytes.length * i / chunkCount), (int) ((long) bytes.length * (i + 1) / chunkCount));
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>(chunkCount);
+        try {
+            for (final Chunk chunk : chunks) {
+                futures.add(executor.submit(new Callable<Chunk>() {
+                    public Chunk call() {
+                        if (failure.get() != null) {
+                            return chunk;
+                        }
+                        try {
+                            if (chunk.boundary == 0) {
+                                chunk.findRecords(bytes, 0, documentCharset, name);
+                            } else {
+                                try {
+                                    chunk.findRecords(bytes, findRecordStart(bytes, chunk.boundary, name), documentCharset, name);
+                                } catch (ParseException e) {
+                                    chunk.failed = true; // a wrong beginning, it will be found out again
+                                }
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                        return chunk;
+                    }
+                }));
+            }
+        } catch (RuntimeException e) { // rejected by executor
+            failure.compareAndSet(null, e);
+            throw e;
+        } finally {
+            await(futures, failure);
+        }
+
+        // check the beginning of each chunk by the end of previous chunk
+        int recordCount = chunks[0].count;
+        for (int i = 1; i < chunkCount; i++) {
+            final Chunk chunk = chunks[i];
+            final int start = chunks[i - 1].nextStart;
+            if (chunk.failed || chunk.start != start) {
+                chunk.findRecords(bytes, start, documentCharset, name);
+            }
+            chunk.firstIndex = recordCount;
+            recordCount += chunk.count;
+        }
+
+        // pass 2: parse records
+        futures = new ArrayList<Future<Chunk>>(chunkCount);
+        try {
+            for (final Chunk chunk : chunks) {
+                if (chunk.count == 0) {
+                    continue;
+                }
+                futures.add(executor.submit(new Callable<Chunk>() {
+                    public Chunk call() {
+                        final FastXmlParser4ByteArray parser = new FastXmlParser4ByteArray();
+                        try {
+                            for (int i = 0; i < chunk.count && failure.get() == null; i++) { // stop after failure of any task
+                                final int start = chunk.records[i << 1];
+                                parser.setInputBytes(bytes, start, chunk.records[(i << 1) + 1] - start, documentCharset);
+                                handler.handle(chunk.firstIndex + i, parser);
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                        return chunk;
+                    }
+                }));
+            }
+        } catch (RuntimeException e) { // rejected by executor
+            failure.compareAndSet(null, e);
+            throw e;
+        } finally {
+            await(futures, failure);
+        }
+        return recordCount;
+    }
+
+    /**
+     * find out the first "&lt;name" after index, followed by whitespace, '/' or '&gt;'
+     *
+     * @return index of '&lt;', or length of bytes if not found
+     */
+    static int findRecordStart(final byte[] bytes, int index, final byte[] name) {
+        final int last = bytes.length - name.length - 1;
+        for (; index < last; index++) {
+            if (bytes[index] == '<' && bytes[index + 1] == name[0]) {
+                int i = 1;
+                while (i < name.length && bytes[index + 1 + i] == name[i]) {
+                    i++;
+                }
+                if (i == name.length && !ByteUtils.isValidTokenChar(bytes[index + 1 + i])) {
+                    return index;
+                }
+            }
+        }
+        return bytes.length;
+    }
+
+    /**
+     * wait until all tasks finish, then throw the first failure of them
+     */
+    private static void await(List<Future<Chunk>> futures, AtomicReference<Throwable> failure) throws ParseException {
+        Workers.awaitAll(futures, failure);
+        final Throwable e = failure.get();
+        if (e != null) {
+            throw Workers.rethrow(e);
+        }
+    }
+
+    /**
+     * records beginning in [boundary, nextBoundary) of document
+     */
+    private final static class Chunk {
+        private final int boundary;
+        private final int nextBoundary;
+        private int start; // where finding begins
+        private boolean failed;
+        private int[] records = new int[32]; // begin and end of records
+        private int count;
+        private int nextStart; // beginning of the first record after this chunk, or length of document
+        private int firstIndex; // index of the first record in document
+
+        Chunk(int boundary, int nextBoundary) {
+            this.boundary = boundary;
+            this.nextBoundary = nextBoundary;
+        }
+
+        /**
+         * find out records from start, start should be the beginning of document or a record
+         */
+        void findRecords(byte[] bytes, int start, Charset charset, byte[] name) throws ParseException {
+            this.start = start;
+            this.failed = false;
+            this.count = 0;
+            this.nextStart = start;
+            if (start >= nextBoundary) { // no record begins in this chunk
+                return;
+            }
+            final FastXmlParser4ByteArray parser = new FastXmlParser4ByteArray();
+            parser.setInputBytes(bytes, start, bytes.length - start, charset);
+            for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+                if (event == FastXmlParser.START_TAG && parser.isMatch(name)) {
+                    final int recordStart = parser.getCurrentIndex() - 1; // '<' before name
+                    if (recordStart >= nextBoundary) {
+                        nextStart = recordStart;
+                        return;
+                    }
+                    parser.skipCurrentTag();
+                    // the end of record is before the next token found by parser
+                    final int nextEvent = parser.getNextEvent();
+                    final int cursor = parser.getCursor();
+                    final int recordEnd = nextEvent == FastXmlParser.START_TAG ? cursor - 1 : nextEvent == FastXmlParser.END_TAG ? cursor - 2 : cursor;
+                    if ((count + 1) << 1 > records.length) {
+                        int[] temp = new int[records.length * 2];
+                        System.arraycopy(records, 0, temp, 0, records.length);
+                        records = temp;
+                    }
+                    records[count << 1] = recordStart;
+                    records[(count << 1) + 1] = recordEnd;
+                    count++;
+                }
+            }
+            nextStart = bytes.length;
+        }
+    }
+}
@@ -18,6 +18,8 @@ package com.github.fastxml;
 import com.github.fastxml.exception.NumberFormatException;
 import com.github.fastxml.exception.ParseException;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 
 /**
@@ -36,14 +38,31 @@ public interface FastXmlParser {
     int ATTRIBUTE_NAME = 4;
     int ATTRIBUTE_VALUE = 5;
     int TEXT = 6;
+    int INCOMPLETE = 7; // more bytes should be fed, only returned by FastXmlParser4Async
 
     /**
-     * get the whole document bytes
+     * get the whole document bytes.
+     * For input stream, it's the buffer which contains current token, and it may be changed after next() is called.
      *
      * @return
      */
     byte[] getDocument();
 
+    /**
+     * get the beginning index of current token in getDocument()
+     *
+     * @return the beginning index of current token
+     */
+    int getCurrentIndex();
+
+    /**
+     * get the byte length of current token in getDocument().
+     * Current token bytes can be read from getDocument() directly without copying, they stay valid until next() is called.
+     *
+     * @return the byte length of current token
+     */
+    int getCurrentBytesLength();
+
     /**
      * get the current offset of document bytes
      *
@@ -98,6 +117,13 @@ public interface FastXmlParser {
      */
     int getDepth();
 
+    /**
+     * check whether current text is continued by next TEXT event, when long text is delivered in chunks.
+     *
+     * @return true if next event is the rest of current text
+     */
+    boolean hasMoreText();
+
     /**
      * check the current bytes is the same with expectBytes
      *
@@ -106,6 +132,29 @@ public interface FastXmlParser {
      */
     boolean isMatch(byte[] expectBytes);
 
+    /**
+     * get the canonical String of current tag name or attribute name from name table, it's created only once for each name.
+     *
+     * @return name
+     */
+    String getName();
+
+    /**
+     * get the id of current tag name or attribute name in name table, ids are given from 0 in the order of adding.
+     *
+     * @return id of name, or NameTable.NO_ID if the name table is full
+     */
+    int getNameId();
+
+    /**
+     * find out current tag name or attribute name in a precompiled name set, by the hash computed while scanning the name.
+     * It's faster than comparing the name with expected names one by one by isMatch().
+     *
+     * @param nameSet names to be matched
+     * @return index of current name in name set, or NameSet.NOT_FOUND
+     */
+    int match(NameSet nameSet);
+
     /**
      * get current raw bytes copy
      *
@@ -117,7 +166,7 @@ public interface FastXmlParser {
      * get Short which convert from current bytes
      *
      * @return Short object or zero if no bytes
-     * @throws NumberFormatException
+     * @throws NumberFormatException if bytes are not a number or out of the range of short
      */
     short getShort() throws NumberFormatException;
 
@@ -153,6 +202,56 @@ public interface FastXmlParser {
      */
     long getLong() throws NumberFormatException;
 
+    /**
+     * get boolean which convert from current bytes, "true" or "1" is true, "false" or "0" is false
+     *
+     * @return boolean value
+     * @throws NumberFormatException if current bytes are not a boolean value
+     */
+    boolean getBoolean() throws NumberFormatException;
+
+    /**
+     * get Byte which convert from current bytes
+     *
+     * @return Byte value
+     * @throws NumberFormatException if bytes are not a number or out of the range of byte
+     */
+    byte getByte() throws NumberFormatException;
+
+    /**
+     * get the only char of current text, decoded the same way as getStringWithDecoding()
+     *
+     * @return char value
+     * @throws ParseException if there is not exactly one char
+     */
+    char getChar() throws ParseException;
+
+    /**
+     * get BigDecimal which convert from current bytes
+     *
+     * @return BigDecimal object
+     * @throws NumberFormatException
+     */
+    BigDecimal getBigDecimal() throws NumberFormatException;
+
+    /**
+     * get milliseconds from 1970-01-01T00:00:00Z which convert from ISO-8601 date-time, such as "2016-12-29T08:30:00.123+08:00".
+     * Time and zone offset are optional, the time is midnight if it's absent, and the zone is UTC if offset is absent.
+     *
+     * @return epoch milliseconds
+     * @throws NumberFormatException
+     */
+    long getEpochMillis() throws NumberFormatException;
+
+    /**
+     * get the count of days from 1970-01-01 which convert from ISO-8601 date, such as "2016-12-29".
+     * It can be converted to java.time.LocalDate by LocalDate.ofEpochDay().
+     *
+     * @return epoch day
+     * @throws NumberFormatException
+     */
+    long getEpochDay() throws NumberFormatException;
+
     /**
      * get the current string from bytes by converting byte to char one by one
      *
@@ -167,4 +266,71 @@ public interface FastXmlParser {
      */
     String getStringWithDecoding() throws ParseException;
 
+    /**
+     * get the current text decoded the same way as getStringWithDecoding(), but without creating a String.
+     * The returned char sequence is reused by parser, its content will be overwritten when another text is decoded,
+     * so call toString() on it if the text should be kept after next().
+     * Text is decoded only when this method is called, and only once for each token.
+     *
+     * @return reusable char sequence, its length is zero if no bytes
+     * @throws ParseException
+     */
+    CharSequence getCharSequence() throws ParseException;
+
+    /**
+     * decode the current text into a char array supplied by caller, the same as getStringWithDecoding().
+     * The decoded text is never longer than getCurrentBytesLength() chars
+     * for ASCII compatible charsets such as UTF-8, ISO-8859-1.
+     *
+     * @param dest   destination char array
+     * @param offset the beginning index of destination
+     * @return count of chars decoded
+     * @throws ParseException
+     * @throws IndexOutOfBoundsException if there is no enough space in destination
+     */
+    int getText(char[] dest, int offset) throws ParseException;
+
+    /**
+     * decode the current text and append it to appendable, such as StringBuilder or Writer,
+     * the same as getStringWithDecoding().
+     *
+     * @param appendable the target
+     * @throws ParseException if text can not be decoded or appendable throws IOException
+     */
+    void appendTo(Appendable appendable) throws ParseException;
+
+    /**
+     * decode the current base64 text into bytes directly, whitespace and CDATA markers are skipped
+     *
+     * @return decoded bytes
+     * @throws ParseException if current text is not base64
+     */
+    byte[] getBase64Bytes() throws ParseException;
+
+    /**
+     * decode the current base64 text and write the bytes into output stream block by block
+     *
+     * @param out output stream
+     * @return count of bytes written
+     * @throws ParseException if current text is not base64 or output stream throws IOException
+     */
+    int readBase64(OutputStream out) throws ParseException;
+
+    /**
+     * decode the current hex text into bytes directly, whitespace and CDATA markers are skipped
+     *
+     * @return decoded bytes
+     * @throws ParseException if current text is not hex
+     */
+    byte[] getHexBytes() throws ParseException;
+
+    /**
+     * decode the current hex text and write the bytes into output stream block by block
+     *
+     * @param out output stream
+     * @return count of bytes written
+     * @throws ParseException if current text is not hex or output stream throws IOException
+     */
+    int readHex(OutputStream out) throws ParseException;
+
 }
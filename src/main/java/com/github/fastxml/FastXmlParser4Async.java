@@ -0,0 +1,179 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A non-blocking, push based XML parser, bytes are fed into it when they arrive, such as in an event loop of network.
+ * next() never waits for bytes, it returns INCOMPLETE if the fed bytes are not enough for the next event,
+ * then the parser stays on the previous event, and the next event is parsed after more bytes are fed.
+ * The bytes of an incomplete event are kept in the buffer, so only the incomplete token is scanned again,
+ * and setTextChunked(true) keeps a long text from being scanned again and again.
+ * Fed bytes are read into the buffer by next(), so call feed() only when needsInput() is true,
+ * and don't change the fed bytes until next() returns INCOMPLETE.
+ * The end tag of root is returned after endOfInput() is called, since parser needs to know what is after it.
+ * Created by weager on 2017/01/08.
+ */
+public class FastXmlParser4Async extends AbstractFastXmlParser {
+    private final FeedSource feedSource = new FeedSource();
+    /**
+     * true if next() has returned INCOMPLETE and no bytes have been fed since then
+     */
+    private boolean starved;
+    /**
+     * depth before the tag which is being skipped, -1 if no tag is being skipped
+     */
+    private int skipDepth = -1;
+
+    /**
+     * Start a new document, and set charset. Bytes of document should be fed by feed().
+     *
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(Charset charset) throws ParseException {
+        this.setInput(getBufferPolicy(), charset);
+    }
+
+    /**
+     * Start a new document with buffer policy, and set charset. Bytes of document should be fed by feed().
+     *
+     * @param bufferPolicy initial size, growth and max size of buffer
+     * @param charset      if param charset is null, then encoding in document will be used;
+     *                     if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(BufferPolicy bufferPolicy, Charset charset) throws ParseException {
+        setBufferPolicy(bufferPolicy);
+        feedSource.clear();
+        starved = false;
+        skipDepth = -1;
+        setInputSource(feedSource, bufferPolicy.getInitialSize(), charset);
+    }
+
+    /**
+     * @return true if all fed bytes have been parsed and the input has not ended, so that more bytes can be fed
+     */
+    public boolean needsInput() {
+        return feedSource.isEmpty() && !feedSource.isEnded();
+    }
+
+    /**
+     * feed bytes of document, the bytes should not be changed until next() returns INCOMPLETE
+     *
+     * @param bytes bytes of document
+     */
+    public void feed(byte[] bytes) {
+        feed(bytes, 0, bytes.length);
+    }
+
+    /**
+     * feed bytes of document, the bytes should not be changed until next() returns INCOMPLETE
+     *
+     * @param bytes  byte array
+     * @param offset index of the first byte
+     * @param length count of bytes
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        checkFeedable();
+        feedSource.feed(bytes, offset, length);
+        starved = false;
+    }
+
+    /**
+     * feed bytes of document from position to limit, the position is moved forward while the bytes are parsed,
+     * and the bytes should not be changed until next() returns INCOMPLETE
+     *
+     * @param byteBuffer bytes of document
+     */
+    public void feed(ByteBuffer byteBuffer) {
+        checkFeedable();
+        feedSource.feed(byteBuffer);
+        starved = false;
+    }
+
+    /**
+     * tell parser that all bytes of document have been fed
+     */
+    public void endOfInput() {
+        feedSource.end();
+        starved = false;
+    }
+
+    private void checkFeedable() {
+        if (feedSource.isEnded()) {
+            throw new IllegalStateException("input has ended");
+        } else if (!feedSource.isEmpty()) {
+            throw new IllegalStateException("fed bytes have not been parsed, call next() until it returns INCOMPLETE");
+        }
+    }
+
+    /**
+     * parse next event with the fed bytes
+     *
+     * @return event type, or INCOMPLETE if more bytes should be fed
+     * @throws ParseException
+     */
+    public int next() throws ParseException {
+        if (starved) { // nothing changed since the last incomplete event
+            return INCOMPLETE;
+        }
+        if (skipDepth >= 0) { // skip the events of the tag which is being skipped
+            for (; ; ) {
+                final int event = parseEvent();
+                if (event == INCOMPLETE) {
+                    return INCOMPLETE;
+                } else if (event == END_DOCUMENT) {
+                    skipDepth = -1;
+                    throw ParseException.documentEndUnexpected(this);
+                } else if (getDepth() == skipDepth && (event == END_TAG || event == END_TAG_WITHOUT_TEXT)) {
+                    skipDepth = -1;
+                    break;
+                }
+            }
+        }
+        return parseEvent();
+    }
+
+    /**
+     * parse an event, restore the state of parser if the fed bytes are not enough
+     */
+    private int parseEvent() throws ParseException {
+        mark();
+        try {
+            return super.next();
+        } catch (InputIncompleteException e) {
+            restore();
+            starved = true;
+            return INCOMPLETE;
+        } finally {
+            unmark();
+        }
+    }
+
+    /**
+     * Skip the current tag and its descendants. The bytes may not have been fed yet, so nothing is skipped at once,
+     * the skipped events are parsed and dropped by the following next() calls, and the first event after the tag is returned.
+     */
+    public void skipCurrentTag() throws ParseException {
+        skipDepth = getDepth() - 1;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A simple, pull based XML parser for ByteBuffer which contains the whole document from position to limit,
+ * such as buffers received from network frameworks.
+ * Heap ByteBuffer is parsed in place on its backing array without copying,
+ * other ByteBuffer such as direct ByteBuffer is copied into a buffer block by block.
+ * The position of the ByteBuffer will not be changed by parser.
+ * Created by weager on 2016/12/22.
+ */
+public class FastXmlParser4ByteBuffer extends AbstractFastXmlParser {
+
+    /**
+     * Set input ByteBuffer, and set charset if no charset specified in document.
+     *
+     * @param buffer  ByteBuffer need to be parsed
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(ByteBuffer buffer, Charset charset) throws ParseException {
+        this.setInput(buffer, getBufferPolicy().getInitialSize(), charset);
+    }
+
+    /**
+     * Set input ByteBuffer, byte buffer for direct ByteBuffer, and set charset if no charset specified in document.
+     *
+     * @param buffer     ByteBuffer need to be parsed
+     * @param bufferSize size of buffer, it's used only when the ByteBuffer has no accessible backing array
+     * @param charset    if param charset is null, then encoding in document will be used;
+     *                   if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(ByteBuffer buffer, int bufferSize, Charset charset) throws ParseException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            throw ParseException.emptyDocument();
+        }
+        if (buffer.hasArray()) { // parse backing array in place
+            setInputBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), charset);
+        } else {
+            setInputSource(new ByteBufferSource(buffer), bufferSize, charset);
+        }
+    }
+}
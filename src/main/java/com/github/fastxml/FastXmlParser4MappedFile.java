@@ -0,0 +1,114 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * A simple, pull based XML parser for file, the file is read through memory mapped windows.
+ * The whole file will not be loaded into heap, bytes are copied from the page cache of OS into the buffer block by block,
+ * so it's suitable for big files, even larger than 2GB.
+ * The file will be closed at the end of document, or you can close it by close() method.
+ * Created by weager on 2016/12/20.
+ */
+public class FastXmlParser4MappedFile extends AbstractFastXmlParser implements Closeable {
+
+    /**
+     * default max byte length of a mapped window
+     */
+    public final static int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+    private MappedFileSource mappedSource;
+
+    /**
+     * Set input file, the encoding in document declaration will be used
+     *
+     * @param file input file
+     * @throws ParseException
+     */
+    public void setInput(File file) throws ParseException {
+        this.setInput(file, getBufferPolicy().getInitialSize(), DEFAULT_WINDOW_SIZE, null);
+    }
+
+    /**
+     * Set input file, and set charset
+     *
+     * @param file    input file
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(File file, Charset charset) throws ParseException {
+        this.setInput(file, getBufferPolicy().getInitialSize(), DEFAULT_WINDOW_SIZE, charset);
+    }
+
+    /**
+     * Set input file, byte buffer, size of mapped window, and set charset.
+     *
+     * @param file       input file
+     * @param bufferSize size of buffer
+     * @param windowSize max byte length of a mapped window
+     * @param charset    if param charset is null, then encoding in document will be used;
+     *                   if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @throws ParseException
+     */
+    public void setInput(File file, int bufferSize, int windowSize, Charset charset) throws ParseException {
+        close();
+        try {
+            this.mappedSource = new MappedFileSource(file, windowSize);
+        } catch (IOException e) {
+            throw ParseException.ioException(e);
+        }
+        try {
+            setInputSource(mappedSource, bufferSize, charset);
+        } catch (ParseException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int next() throws ParseException {
+        try {
+            int event = super.next();
+            if (event == END_DOCUMENT) {
+                close();
+            }
+            return event;
+        } catch (ParseException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * close the input file
+     */
+    public void close() {
+        if (mappedSource != null) {
+            try {
+                mappedSource.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            mappedSource = null;
+        }
+    }
+}
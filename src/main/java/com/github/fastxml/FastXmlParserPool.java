@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe pool of parsers, for parsing lots of small documents without creating parser and buffer for each document.
+ * Idle parsers are kept in lock-free slots, each thread starts looking for a parser from its own stripe of slots,
+ * so threads seldom compete for the same slot.
+ * A parser should be released after parsing, and should not be used any more after released.
+ * Created by weager on 2016/12/24.
+ */
+public class FastXmlParserPool {
+
+    /**
+     * default max size of buffer kept by an idle parser
+     */
+    public final static int DEFAULT_MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private final Slots<FastXmlParser4ByteArray> byteArrayParsers;
+    private final Slots<FastXmlParser4ByteBuffer> byteBufferParsers;
+    private final Slots<FastXmlParser4InputStream> inputStreamParsers;
+    /**
+     * buffer larger than this size will not be kept by idle parser
+     */
+    private final int maxRetainedBufferSize;
+
+    /**
+     * create a pool which keeps at most two idle parsers of each type for every processor
+     */
+    public FastXmlParserPool() {
+        this(Runtime.getRuntime().availableProcessors() * 2, DEFAULT_MAX_RETAINED_BUFFER_SIZE);
+    }
+
+    /**
+     * create a pool
+     *
+     * @param capacity              max count of idle parsers kept for each type of parser
+     * @param maxRetainedBufferSize buffer larger than this size will be released when the parser is released
+     */
+    public FastXmlParserPool(int capacity, int maxRetainedBufferSize) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity should be positive");
+        }
+        this.byteArrayParsers = new Slots<FastXmlParser4ByteArray>(capacity);
+        this.byteBufferParsers = new Slots<FastXmlParser4ByteBuffer>(capacity);
+        this.inputStreamParsers = new Slots<FastXmlParser4InputStream>(capacity);
+        this.maxRetainedBufferSize = maxRetainedBufferSize;
+    }
+
+    /**
+     * get a parser from pool for document bytes
+     *
+     * @param docBytes document bytes
+     * @param charset  if null, charset specified in document header will be used
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public FastXmlParser4ByteArray borrow(byte[] docBytes, Charset charset) throws ParseException {
+        FastXmlParser4ByteArray parser = byteArrayParsers.poll();
+        if (parser == null) {
+            parser = new FastXmlParser4ByteArray();
+        }
+        parser.setInput(docBytes, charset);
+        return parser;
+    }
+
+    /**
+     * get a parser from pool for ByteBuffer
+     *
+     * @param buffer  ByteBuffer contains the whole document from position to limit
+     * @param charset if null, charset specified in document header will be used
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public FastXmlParser4ByteBuffer borrow(ByteBuffer buffer, Charset charset) throws ParseException {
+        FastXmlParser4ByteBuffer parser = byteBufferParsers.poll();
+        if (parser == null) {
+            parser = new FastXmlParser4ByteBuffer();
+        }
+        parser.setInput(buffer, charset);
+        return parser;
+    }
+
+    /**
+     * get a parser from pool for input stream, the buffer of parser will be reused
+     *
+     * @param is      input stream
+     * @param charset if null, charset specified in document header will be used
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public FastXmlParser4InputStream borrow(InputStream is, Charset charset) throws ParseException {
+        FastXmlParser4InputStream parser = inputStreamParsers.poll();
+        if (parser == null) {
+            parser = new FastXmlParser4InputStream();
+        }
+        parser.setInput(is, charset);
+        return parser;
+    }
+
+    /**
+     * return the parser to pool, the parser should not be used any more.
+     * If the pool is full, the parser will be dropped.
+     *
+     * @param parser the parser got from this pool
+     */
+    public void release(FastXmlParser parser) {
+        if (parser instanceof FastXmlParser4ByteArray) {
+            FastXmlParser4ByteArray byteArrayParser = (FastXmlParser4ByteArray) parser;
+            byteArrayParser.reset(maxRetainedBufferSize);
+            byteArrayParsers.offer(byteArrayParser);
+        } else if (parser instanceof FastXmlParser4ByteBuffer) {
+            FastXmlParser4ByteBuffer byteBufferParser = (FastXmlParser4ByteBuffer) parser;
+            byteBufferParser.reset(maxRetainedBufferSize);
+            byteBufferParsers.offer(byteBufferParser);
+        } else if (parser instanceof FastXmlParser4InputStream) {
+            FastXmlParser4InputStream inputStreamParser = (FastXmlParser4InputStream) parser;
+            inputStreamParser.reset(maxRetainedBufferSize);
+            inputStreamParsers.offer(inputStreamParser);
+        }
+    }
+
+    /**
+     * lock-free slots of idle parsers, each thread starts from its own stripe
+     *
+     * @param <T> type of parser
+     */
+    private final static class Slots<T> {
+        private final AtomicReferenceArray<T> slots;
+        private final int mask;
+
+        Slots(int capacity) {
+            int size = 1;
+            while (size < capacity) {
+                size <<= 1;
+            }
+            this.slots = new AtomicReferenceArray<T>(size);
+            this.mask = size - 1;
+        }
+
+        T poll() {
+            int start = stripe();
+            for (int i = 0; i <= mask; i++) {
+                int index = (start + i) & mask;
+                T parser = slots.get(index);
+                if (parser != null && slots.compareAndSet(index, parser, null)) {
+                    return parser;
+                }
+            }
+            return null;
+        }
+
+        boolean offer(T parser) {
+            int start = stripe();
+            for (int i = 0; i <= mask; i++) {
+                int index = (start + i) & mask;
+                if (slots.get(index) == null && slots.compareAndSet(index, null, parser)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int stripe() {
+            long id = Thread.currentThread().getId();
+            return (int) (id ^ (id >>> 16)) * 0x9E3779B9 & mask;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parse repeated elements (records) of an input stream by worker threads.
+ * The calling thread reads the stream by FastXmlParser4InputStream, each record is skipped by scanning its nesting
+ * and its bytes are copied into a segment, then the segments are handed over to workers by a bounded queue,
+ * and each worker parses them by a reused FastXmlParser4ByteArray.
+ * Segments are reused, the count of them is capacity + workers, so the reader waits when workers are busy.
+ * Records are the elements with specific name, or at specific depth, or both, which are not inside another record.
+ * Workers block while waiting for segments, so the executor should run them in other threads than the caller,
+ * direct executors and caller-runs policy are rejected, and it should have at least workers free threads,
+ * otherwise the rest workers start only after the busy ones finish.
+ * run() returns after all workers are finished, mapper and consumer are never called after that, even if it fails.
+ * An instance can be shared by threads after setting, the executor is not shut down by it.
+ * Created by weager on 2017/01/06.
+ */
+public final class FastXmlPipeline {
+    /**
+     * initial size of segment
+     */
+    public final static int DEFAULT_SEGMENT_SIZE = 1024;
+    private final static long POLL_MILLIS = 10;
+
+    private final ExecutorService executor;
+    private final int workers;
+    private final int capacity;
+    private byte[] recordName;
+    private int recordDepth;
+    private boolean ordered;
+    private BufferPolicy bufferPolicy = BufferPolicy.DEFAULT;
+
+    /**
+     * @param executor executor of workers, it should have a free thread for each worker, and should not run them in the caller thread
+     * @param workers  count of workers
+     * @param capacity max count of records waiting for workers
+     */
+    public FastXmlPipeline(ExecutorService executor, int workers, int capacity) {
+        if (executor == null || workers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("executor should not be null, workers and capacity should be positive");
+        }
+        this.executor = executor;
+        this.workers = workers;
+        this.capacity = capacity;
+    }
+
+    /**
+     * records are the elements with this name
+     *
+     * @param recordName ASCII name of record element, null for any name
+     */
+    public void setRecordName(String recordName) {
+        if (recordName == null) {
+            this.recordName = null;
+            return;
+        }
+        this.recordName = new byte[recordName.length()];
+        for (int i = 0; i < this.recordName.length; i++) {
+            this.recordName[i] = (byte) recordName.charAt(i);
+        }
+    }
+
+    /**
+     * records are the elements at this depth, root element is at depth 1
+     *
+     * @param recordDepth depth of record element, 0 for any depth
+     */
+    public void setRecordDepth(int recordDepth) {
+        if (recordDepth < 0) {
+            throw new IllegalArgumentException("depth should not be negative");
+        }
+        this.recordDepth = recordDepth;
+    }
+
+    /**
+     * pass results to RecordConsumer in the order of records, otherwise in the order of finishing
+     *
+     * @param ordered true to keep the order of records
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+
+    /**
+     * buffer policy of the reader, the max size of buffer limits the size of record.
+     * Segments larger than retained size are released after use.
+     *
+     * @param bufferPolicy buffer policy
+     */
+    public void setBufferPolicy(BufferPolicy bufferPolicy) {
+        this.bufferPolicy = bufferPolicy == null ? BufferPolicy.DEFAULT : bufferPolicy;
+    }
+
+    /**
+     * parse records by workers, records may be handled in any order
+     *
+     * @param is      input stream, it will be closed at the end
+     * @param charset if param charset is null, then encoding in document will be used;
+     *                if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @param handler handler of records
+     * @return count of records
+     * @throws ParseException
+     */
+    public int run(InputStream is, Charset charset, final RecordHandler handler) throws ParseException {
+        return run(is, charset, new RecordMapper<Object>() {
+            public Object map(int recordIndex, FastXmlParser parser) throws ParseException {
+                handler.handle(recordIndex, parser);
+                return null;
+            }
+        }, null);
+    }
+
+    /**
+     * parse records by workers, and pass the results to consumer
+     *
+     * @param is       input stream, it will be closed at the end
+     * @param charset  if param charset is null, then encoding in document will be used;
+     *                 if both param charset and encoding in document is empty, then AbstractFastXmlParser.defaultCharset will be used
+     * @param mapper   mapper of records, called by workers
+     * @param consumer consumer of results, called by one worker at a time, may be null
+     * @return count of records
+     * @throws ParseException
+     */
+    public <T> int run(InputStream is, Charset charset, RecordMapper<T> mapper, RecordConsumer<? super T> consumer) throws ParseException {
+        if (recordName == null && recordDepth == 0) {
+            throw new IllegalStateException("record name or depth should be set");
+        }
+        final Run<T> run = new Run<T>(mapper, consumer);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(workers);
+        final FastXmlParser4InputStream parser = new FastXmlParser4InputStream();
+        final Thread reader = Thread.currentThread();
+        int count = 0;
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        if (Thread.currentThread() == reader) { // it would wait for segments which are never read
+                            run.failure.compareAndSet(null, new IllegalArgumentException("executor should run workers in other threads"));
+                            return null;
+                        }
+                        run.work();
+                        return null;
+                    }
+                }));
+            }
+            parser.setInput(is, bufferPolicy, charset);
+            for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT && run.failure.get() == null; event = parser.next()) {
+                if (event == FastXmlParser.START_TAG && (recordName == null || parser.isMatch(recordName))
+                        && (recordDepth == 0 || parser.getDepth() == recordDepth)) {
+                    final Segment segment = run.takeFree();
+                    if (segment == null) { // failed
+                        break;
+                    }
+                    try {
+                        parser.copyCurrentTag(segment);
+                    } catch (ParseException e) {
+                        run.free.offer(segment);
+                        throw e;
+                    }
+                    segment.index = count++;
+                    segment.charset = parser.getEncode();
+                    run.putWork(segment, futures);
+                }
+            }
+        } catch (ParseException e) {
+            throw run.readerFailed(e);
+        } catch (RuntimeException e) {
+            throw run.readerFailed(e);
+        } catch (Error e) {
+            throw run.readerFailed(e);
+        } finally {
+            parser.reset();
+            for (int i = 0; i < workers; i++) {
+                run.putWork(run.end, futures);
+            }
+            Workers.awaitAll(futures, run.failure);
+        }
+        final Throwable failure = run.failure.get();
+        if (failure != null) {
+            throw Workers.rethrow(failure);
+        }
+        return count;
+    }
+
+    private static boolean isDone(List<Future<Void>> futures) {
+        for (Future<Void> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * state of a run
+     */
+    private final class Run<T> {
+        private final RecordMapper<T> mapper;
+        private final RecordConsumer<? super T> consumer;
+        private final BlockingQueue<Segment> free; // segments for reader
+        private final BlockingQueue<Segment> work; // segments for workers
+        private final Segment end = new Segment(0); // tells a worker to stop
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private final Segment[] pending; // segments waiting for ordered delivery, by index
+        private int nextIndex; // index of the next record to be delivered
+
+        Run(RecordMapper<T> mapper, RecordConsumer<? super T> consumer) {
+            this.mapper = mapper;
+            this.consumer = consumer;
+            final int segmentCount = capacity + workers;
+            this.free = new ArrayBlockingQueue<Segment>(segmentCount);
+            this.work = new ArrayBlockingQueue<Segment>(capacity + workers); // room for end markers
+            for (int i = 0; i < segmentCount; i++) {
+                free.offer(new Segment(DEFAULT_SEGMENT_SIZE));
+            }
+            this.pending = ordered && consumer != null ? new Segment[segmentCount] : null;
+        }
+
+        /**
+         * stop workers after failure of reader, the earlier failure of worker is attached to it
+         *
+         * @param e failure of reader
+         * @return param e
+         */
+        <E extends Throwable> E readerFailed(E e) {
+            if (!failure.compareAndSet(null, e)) {
+                Workers.attach(e, failure.get());
+            }
+            return e;
+        }
+
+        /**
+         * take a free segment, wait if all segments are in use
+         *
+         * @return segment, or null if any worker failed
+         */
+        Segment takeFree() throws ParseException {
+            try {
+                Segment segment;
+                while ((segment = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    if (failure.get() != null) {
+                        return null;
+                    }
+                }
+                return segment;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ParseException.interrupted(e);
+            }
+        }
+
+        /**
+         * hand over a segment to workers, wait if the queue is full, give up if all workers stopped
+         */
+        void putWork(Segment segment, List<Future<Void>> futures) {
+            boolean interrupted = false;
+            try {
+                for (; ; ) {
+                    try {
+                        if (work.offer(segment, POLL_MILLIS, TimeUnit.MILLISECONDS) || isDone(futures)) {
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * loop of worker, parse segments until end marker, or interrupted
+         */
+        void work() {
+            final FastXmlParser4ByteArray parser = new FastXmlParser4ByteArray();
+            for (; ; ) {
+                final Segment segment;
+                try {
+                    segment = work.take();
+                } catch (InterruptedException e) {
+                    failure.compareAndSet(null, e);
+                    return;
+                }
+                if (segment == end) {
+                    return;
+                }
+                if (failure.get() == null) { // the rest segments are only recycled after failure
+                    try {
+                        parser.setInputBytes(segment.bytes, 0, segment.length, segment.charset);
+                        segment.result = mapper.map(segment.index, parser);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                deliver(segment);
+            }
+        }
+
+        /**
+         * pass result of segment to consumer, and recycle segment
+         */
+        @SuppressWarnings("unchecked")
+        private void deliver(Segment segment) {
+            if (consumer == null) {
+                recycle(segment);
+            } else if (pending == null) { // unordered
+                synchronized (this) {
+                    accept(segment);
+                }
+                recycle(segment);
+            } else {
+                synchronized (this) {
+                    pending[segment.index % pending.length] = segment;
+                    for (; ; ) {
+                        final int i = nextIndex % pending.length;
+                        final Segment next = pending[i];
+                        if (next == null || next.index != nextIndex) {
+                            break;
+                        }
+                        pending[i] = null;
+                        nextIndex++;
+                        accept(next);
+                        recycle(next);
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void accept(Segment segment) {
+            if (failure.get() == null) {
+                try {
+                    consumer.accept(segment.index, (T) segment.result);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+
+        private void recycle(Segment segment) {
+            segment.recycle(bufferPolicy.getRetainedSize(), DEFAULT_SEGMENT_SIZE);
+            free.offer(segment);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of an input stream, which publishes batches of events or batches of matched elements.
+ * The stream is read by FastXmlParser4InputStream only when subscriber has requested more batches,
+ * so a slow subscriber never makes the buffer of parser grow, it stops reading the stream instead.
+ * Each batch contains several events or elements, to amortize the cost of signals.
+ * The items are published by a task of executor, tasks of a subscription never run at the same time.
+ * An executor which runs the task in the calling thread makes the publishing synchronous with request().
+ * It can be subscribed only once, and the stream is closed at the end, on failure or cancel.
+ * Created by weager on 2017/01/09.
+ */
+public final class FastXmlPublisher<T> implements FastXmlFlow.Publisher<T> {
+    private final InputStream is;
+    private final Charset charset;
+    private final Executor executor;
+    private final Reader<T> reader;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private BufferPolicy bufferPolicy = BufferPolicy.DEFAULT;
+
+    private FastXmlPublisher(InputStream is, Charset charset, Executor executor, Reader<T> reader) {
+        if (is == null || executor == null) {
+            throw new IllegalArgumentException("input stream and executor should not be null");
+        }
+        this.is = is;
+        this.charset = charset;
+        this.executor = executor;
+        this.reader = reader;
+    }
+
+    /**
+     * create a publisher of all events of document
+     *
+     * @param is        input stream
+     * @param charset   if null, charset specified in document header will be used
+     * @param executor  executor of publishing tasks
+     * @param batchSize max count of events in a batch
+     * @return FastXmlPublisher instance
+     */
+    public static FastXmlPublisher<EventBatch> events(InputStream is, Charset charset, Executor executor, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size should be positive");
+        }
+        return new FastXmlPublisher<EventBatch>(is, charset, executor, new EventReader(batchSize));
+    }
+
+    /**
+     * create a publisher of elements with specific name, or at specific depth, or both, which are not inside another matched element.
+     * The elements are skipped by scanning their nesting, and their bytes are copied without parsing.
+     *
+     * @param is        input stream
+     * @param charset   if null, charset specified in document header will be used
+     * @param executor  executor of publishing tasks
+     * @param name      ASCII name of element, null for any name
+     * @param depth     depth of element, root element is at depth 1, 0 for any depth
+     * @param batchSize max count of elements in a batch
+     * @return FastXmlPublisher instance
+     */
+    public static FastXmlPublisher<SubtreeBatch> subtrees(InputStream is, Charset charset, Executor executor,
+                                                          String name, int depth, int batchSize) {
+        if (batchSize < 1 || depth < 0 || (name == null && depth == 0)) {
+            throw new IllegalArgumentException("batch size should be positive, and name or depth should be specified");
+        }
+        return new FastXmlPublisher<SubtreeBatch>(is, charset, executor, new SubtreeReader(name, depth, batchSize));
+    }
+
+    /**
+     * buffer policy of the parser, the max size of buffer limits the size of token, and the size of matched element
+     *
+     * @param bufferPolicy buffer policy
+     */
+    public void setBufferPolicy(BufferPolicy bufferPolicy) {
+        this.bufferPolicy = bufferPolicy == null ? BufferPolicy.DEFAULT : bufferPolicy;
+    }
+
+    public void subscribe(FastXmlFlow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber should not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new FastXmlFlow.Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("the input stream has been subscribed"));
+            return;
+        }
+        final StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * reads the next item from parser
+     */
+    private abstract static class Reader<T> {
+
+        /**
+         * @return the next item, or null if reach the end of document
+         */
+        abstract T read(FastXmlParser4InputStream parser) throws ParseException;
+    }
+
+    private final static class EventReader extends Reader<EventBatch> {
+        private final int batchSize;
+
+        EventReader(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        EventBatch read(FastXmlParser4InputStream parser) throws ParseException {
+            EventBatch batch = null;
+            while (batch == null || !batch.isFull()) {
+                final int event = parser.getNextEvent() == FastXmlParser.END_DOCUMENT ? FastXmlParser.END_DOCUMENT : parser.next();
+                if (event == FastXmlParser.END_DOCUMENT) {
+                    break;
+                } else if (event == FastXmlParser.START_DOCUMENT) {
+                    continue;
+                }
+                if (batch == null) {
+                    batch = new EventBatch(batchSize);
+                }
+                final String value = event == FastXmlParser.ATTRIBUTE_VALUE || event == FastXmlParser.TEXT
+                        ? parser.getStringWithDecoding() : parser.getName();
+                batch.add(event, parser.getDepth(), value);
+            }
+            return batch;
+        }
+    }
+
+    private final static class SubtreeReader extends Reader<SubtreeBatch> {
+        private final byte[] name;
+        private final int depth;
+        private final int batchSize;
+        private final Segment segment = new Segment(FastXmlPipeline.DEFAULT_SEGMENT_SIZE);
+        private int count; // count of elements which have been read
+
+        SubtreeReader(String name, int depth, int batchSize) {
+            if (name != null) {
+                this.name = new byte[name.length()];
+                for (int i = 0; i < this.name.length; i++) {
+                    this.name[i] = (byte) name.charAt(i);
+                }
+            } else {
+                this.name = null;
+            }
+            this.depth = depth;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        SubtreeBatch read(FastXmlParser4InputStream parser) throws ParseException {
+            SubtreeBatch batch = null;
+            while (batch == null || batch.size() < batchSize) {
+                if (parser.getNextEvent() == FastXmlParser.END_DOCUMENT) {
+                    break;
+                }
+                final int event = parser.next();
+                if (event == FastXmlParser.START_TAG && (name == null || parser.isMatch(name))
+                        && (depth == 0 || parser.getDepth() == depth)) {
+                    parser.copyCurrentTag(segment);
+                    if (batch == null) {
+                        batch = new SubtreeBatch(batchSize, count, parser.getEncode());
+                    }
+                    batch.add(Arrays.copyOf(segment.bytes, segment.length));
+                    count++;
+                }
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * subscription which reads the stream by the requested count of items
+     */
+    private final class StreamSubscription implements FastXmlFlow.Subscription, Runnable {
+        private final FastXmlFlow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong(); // count of items requested but not published
+        private final AtomicInteger wip = new AtomicInteger(); // count of signals which are not handled by publishing task
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private FastXmlParser4InputStream parser; // only accessed by publishing task
+        private boolean done; // only accessed by publishing task
+
+        StreamSubscription(FastXmlFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("count of requested items should be positive: " + n);
+            } else {
+                long current, next;
+                do {
+                    current = demand.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n; // unbounded if overflow
+                } while (!demand.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        public void run() {
+            int missed = 1;
+            do {
+                publish();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * publish items until the demand is met, or the document ends
+         */
+        private void publish() {
+            if (done) {
+                return;
+            }
+            try {
+                for (; ; ) {
+                    if (cancelled) {
+                        finish();
+                        return;
+                    } else if (invalidRequest != null) {
+                        finish();
+                        subscriber.onError(invalidRequest);
+                        return;
+                    }
+                    final long requested = demand.get();
+                    if (requested == 0) {
+                        return; // stop reading until more items are requested
+                    }
+                    if (parser == null) {
+                        parser = new FastXmlParser4InputStream();
+                        parser.setInput(is, bufferPolicy, charset);
+                    }
+                    final T item = reader.read(parser);
+                    if (item == null) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (requested != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(item);
+                }
+            } catch (Throwable e) {
+                if (!done) {
+                    finish();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        /**
+         * no more items will be published, close the stream
+         */
+        private void finish() {
+            done = true;
+            if (parser != null) {
+                parser.reset();
+                parser = null;
+            } else {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Non-blocking byte source which is fed by user, the fed bytes are read into the buffer of parser without copying again.
+ * It returns 0 from read() when all fed bytes have been read, and -1 after end() is called and all bytes have been read.
+ * Created by weager on 2017/01/08.
+ */
+final class FeedSource extends ByteSource {
+    private byte[] bytes; // fed byte array, null if it has been read
+    private int offset;
+    private int end;
+    private ByteBuffer byteBuffer; // fed ByteBuffer, null if it has been read
+    private boolean ended;
+
+    void feed(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.end = offset + length;
+    }
+
+    void feed(ByteBuffer byteBuffer) {
+        if (!byteBuffer.hasRemaining()) {
+            return;
+        }
+        this.byteBuffer = byteBuffer;
+    }
+
+    void end() {
+        this.ended = true;
+    }
+
+    boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * @return true if all fed bytes have been read
+     */
+    boolean isEmpty() {
+        return bytes == null && byteBuffer == null;
+    }
+
+    @Override
+    int read(byte[] buffer, int offset, int length) {
+        if (bytes != null) {
+            final int count = Math.min(length, end - this.offset);
+            System.arraycopy(bytes, this.offset, buffer, offset, count);
+            this.offset += count;
+            if (this.offset == end) {
+                bytes = null;
+            }
+            return count;
+        } else if (byteBuffer != null) {
+            final int count = Math.min(length, byteBuffer.remaining());
+            byteBuffer.get(buffer, offset, count);
+            if (!byteBuffer.hasRemaining()) {
+                byteBuffer = null;
+            }
+            return count;
+        }
+        return ended ? -1 : 0;
+    }
+
+    @Override
+    boolean isNonBlocking() {
+        return true;
+    }
+
+    @Override
+    void close() {
+        bytes = null;
+        byteBuffer = null;
+    }
+
+    /**
+     * prepare for a new document
+     */
+    void clear() {
+        close();
+        ended = false;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * Thrown by parser when a non-blocking source has no bytes available in the middle of an event,
+ * FastXmlParser4Async catches it and returns INCOMPLETE. It's shared and has no stack trace, since it's thrown frequently.
+ * Created by weager on 2017/01/08.
+ */
+final class InputIncompleteException extends ParseException {
+    static final InputIncompleteException INSTANCE = new InputIncompleteException();
+
+    private InputIncompleteException() {
+        super("more bytes should be fed into parser");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Byte source which reads bytes from input stream block by block.
+ * The input stream is owned by user, so it will not be closed by parser.
+ * Created by weager on 2016/12/22.
+ */
+class InputStreamSource extends ByteSource {
+    private final InputStream is;
+
+    InputStreamSource(InputStream is) {
+        this.is = is;
+    }
+
+    @Override
+    int read(byte[] buffer, int offset, int length) throws IOException {
+        return is.read(buffer, offset, length);
+    }
+}
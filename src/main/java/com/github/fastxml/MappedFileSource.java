@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Byte source which reads file through memory mapped windows, so the file is read from the page cache of OS without system call.
+ * A mapped window is limited to 2GB, so a big file is mapped window by window.
+ * Created by weager on 2016/12/20.
+ */
+class MappedFileSource extends ByteSource {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    /**
+     * byte length of the file
+     */
+    private final long fileLength;
+    /**
+     * max byte length of a mapped window
+     */
+    private final int windowSize;
+    /**
+     * file position of the next window
+     */
+    private long nextWindowPosition;
+    /**
+     * current mapped window
+     */
+    private MappedByteBuffer window;
+
+    MappedFileSource(File file, int windowSize) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.fileLength = channel.size();
+        this.windowSize = windowSize;
+        this.nextWindowPosition = 0;
+    }
+
+    @Override
+    int read(byte[] buffer, int offset, int length) throws IOException {
+        if (!hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    void close() throws IOException {
+        window = null;
+        nextWindowPosition = fileLength;
+        file.close();
+    }
+
+    /**
+     * check whether there are bytes remaining, and map next window if current window is exhausted
+     *
+     * @return false if reach the end of file
+     * @throws IOException
+     */
+    private boolean hasRemaining() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (nextWindowPosition >= fileLength) {
+            window = null;
+            return false;
+        }
+        long size = Math.min(windowSize, fileLength - nextWindowPosition);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindowPosition, size);
+        nextWindowPosition += size;
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * Precompiled set of tag names or attribute names for FastXmlParser.match(), which finds out the index of current name
+ * by the hash computed while scanning the name, instead of comparing the name with each expected name by isMatch().
+ * A set is immutable, so it can be shared by parsers in different threads.
+ * Created by weager on 2017/01/02.
+ */
+public final class NameSet {
+    /**
+     * index returned when current name is not in the set
+     */
+    public final static int NOT_FOUND = NameTable.NO_ID;
+
+    private final NameTable.Symbols symbols; // the same hash table as NameTable, index of name is its id
+
+    /**
+     * create a set of ASCII names, the index of a name is its position in the arguments
+     *
+     * @param names names to be matched
+     */
+    public NameSet(String... names) {
+        int capacity = 1;
+        while (capacity < names.length) { // load factor of buckets is at most 0.5
+            capacity <<= 1;
+        }
+        this.symbols = new NameTable.Symbols(capacity);
+        for (String name : names) {
+            final byte[] nameBytes = NameTable.toBytes(name);
+            final int hash = NameTable.hash(nameBytes, 0, nameBytes.length);
+            if (symbols.find(nameBytes, 0, nameBytes.length, hash) != NOT_FOUND) {
+                throw new IllegalArgumentException("duplicate name: " + name);
+            }
+            symbols.add(nameBytes, 0, nameBytes.length, hash);
+        }
+    }
+
+    /**
+     * find out the index of name bytes
+     *
+     * @param name   the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of name bytes
+     * @param hash   hash of name bytes, see NameTable.hash()
+     * @return index of name, or NOT_FOUND
+     */
+    public int indexOf(final byte[] name, final int begin, final int length, final int hash) {
+        return symbols.find(name, begin, length, hash);
+    }
+
+    /**
+     * @param index index of name
+     * @return name
+     */
+    public String getName(int index) {
+        if (index < 0 || index >= symbols.size()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + symbols.size());
+        }
+        return symbols.getName(index);
+    }
+
+    /**
+     * @return count of names
+     */
+    public int size() {
+        return symbols.size();
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+/**
+ * Symbol table of tag names and attribute names, which maps name bytes to a canonical String and an id.
+ * Ids are given from 0 in the order of adding, so names can be added before parsing and consumers can switch on ids.
+ * A table owned by one parser is not thread-safe. A shared table can be used by parsers in different threads:
+ * looking up is lock-free on an immutable snapshot, and adding a name copies the snapshot under lock,
+ * which is cheap because the vocabulary of documents is small and stable.
+ * When the table is full, names are not added any more, so that documents with random names can not exhaust the heap.
+ * Created by weager on 2017/01/01.
+ */
+public class NameTable {
+    /**
+     * default max count of names
+     */
+    public final static int DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * id of the name which is not in the table because the table is full
+     */
+    public final static int NO_ID = -1;
+
+    private final boolean shared;
+    private final int maxSize;
+    /**
+     * a shared table replaces the whole snapshot when adding a name, others change it in place
+     */
+    private volatile Symbols symbols = new Symbols(16);
+
+    /**
+     * create a table for one parser, it's not thread-safe
+     */
+    public NameTable() {
+        this(false, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * create a table
+     *
+     * @param shared  true if the table is shared by parsers in different threads
+     * @param maxSize max count of names
+     */
+    public NameTable(boolean shared, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("max size should be positive");
+        }
+        this.shared = shared;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * create a table which can be shared by parsers in different threads
+     *
+     * @return NameTable instance
+     */
+    public static NameTable newSharedTable() {
+        return new NameTable(true, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * hash of name bytes, it's the same as String.hashCode() for ASCII names
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of name bytes
+     * @return hash
+     */
+    public static int hash(final byte[] bytes, final int begin, final int length) {
+        int hash = 0;
+        for (int i = begin, last = begin + length; i < last; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    /**
+     * add a name before parsing, so that its id is known
+     *
+     * @param name ASCII name
+     * @return id of name, or NO_ID if the table is full
+     */
+    public int add(String name) {
+        final byte[] bytes = toBytes(name);
+        return getId(bytes, 0, bytes.length, hash(bytes, 0, bytes.length));
+    }
+
+    /**
+     * bytes of ASCII name
+     */
+    static byte[] toBytes(String name) {
+        final byte[] bytes = new byte[name.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) name.charAt(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * get id of name bytes, the name will be added if it's not in the table
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of name bytes
+     * @param hash   hash of name bytes, see hash()
+     * @return id of name, or NO_ID if the table is full
+     */
+    public int getId(final byte[] bytes, final int begin, final int length, final int hash) {
+        final int id = symbols.find(bytes, begin, length, hash);
+        if (id != NO_ID) {
+            return id;
+        }
+        return shared ? addShared(bytes, begin, length, hash) : addLocal(bytes, begin, length, hash);
+    }
+
+    /**
+     * get the canonical name of id
+     *
+     * @param id id of name
+     * @return name
+     */
+    public String getName(int id) {
+        final Symbols current = symbols;
+        if (id < 0 || id >= current.size) {
+            throw new IndexOutOfBoundsException("id: " + id + ", size: " + current.size);
+        }
+        return current.names[id];
+    }
+
+    /**
+     * @return count of names
+     */
+    public int size() {
+        return symbols.size;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    private int addLocal(final byte[] bytes, final int begin, final int length, final int hash) {
+        Symbols current = symbols;
+        if (current.size >= maxSize) {
+            return NO_ID;
+        }
+        if (current.isFull()) {
+            current = current.grow();
+            symbols = current;
+        }
+        return current.add(bytes, begin, length, hash);
+    }
+
+    private synchronized int addShared(final byte[] bytes, final int begin, final int length, final int hash) {
+        final Symbols current = symbols;
+        int id = current.find(bytes, begin, length, hash); // may be added by another thread
+        if (id != NO_ID || current.size >= maxSize) {
+            return id;
+        }
+        final Symbols copy = current.isFull() ? current.grow() : current.copy();
+        id = copy.add(bytes, begin, length, hash);
+        symbols = copy; // publish the new snapshot
+        return id;
+    }
+
+    /**
+     * open addressing hash table of names, ids are given from 0 in the order of adding.
+     * It's also the immutable table of NameSet, whose indexes are the ids.
+     */
+    final static class Symbols {
+        private final int[] buckets; // id + 1, 0 means empty bucket
+        private final int[] hashes; // by id
+        private final byte[][] bytes; // by id
+        private final String[] names; // by id
+        private int size;
+
+        /**
+         * @param capacity max count of names before growing, it should be a power of 2
+         */
+        Symbols(int capacity) {
+            this(new int[capacity * 2], new int[capacity], new byte[capacity][], new String[capacity], 0);
+        }
+
+        private Symbols(int[] buckets, int[] hashes, byte[][] bytes, String[] names, int size) {
+            this.buckets = buckets;
+            this.hashes = hashes;
+            this.bytes = bytes;
+            this.names = names;
+            this.size = size;
+        }
+
+        int find(final byte[] name, final int begin, final int length, final int hash) {
+            final int mask = buckets.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                final int id = buckets[i] - 1;
+                if (id < 0) {
+                    return NO_ID;
+                }
+                if (hashes[id] == hash && equals(bytes[id], name, begin, length)) {
+                    return id;
+                }
+            }
+        }
+
+        boolean isFull() {
+            return size == names.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        String getName(int id) {
+            return names[id];
+        }
+
+        int add(final byte[] name, final int begin, final int length, final int hash) {
+            final byte[] copy = new byte[length];
+            System.arraycopy(name, begin, copy, 0, length);
+            final char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) copy[i];
+            }
+            final int id = size;
+            hashes[id] = hash;
+            bytes[id] = copy;
+            names[id] = new String(chars);
+            size++;
+            final int mask = buckets.length - 1;
+            int i = spread(hash) & mask;
+            while (buckets[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            buckets[i] = id + 1;
+            return id;
+        }
+
+        Symbols copy() {
+            return new Symbols(buckets.clone(), hashes.clone(), bytes.clone(), names.clone(), size);
+        }
+
+        /**
+         * copy names into a table of double capacity, canonical names are kept
+         */
+        Symbols grow() {
+            final int capacity = names.length * 2;
+            final int[] hashesCopy = new int[capacity];
+            final byte[][] bytesCopy = new byte[capacity][];
+            final String[] namesCopy = new String[capacity];
+            System.arraycopy(hashes, 0, hashesCopy, 0, size);
+            System.arraycopy(bytes, 0, bytesCopy, 0, size);
+            System.arraycopy(names, 0, namesCopy, 0, size);
+            final int[] bucketsCopy = new int[capacity * 2];
+            final int mask = bucketsCopy.length - 1;
+            for (int id = 0; id < size; id++) {
+                int i = spread(hashes[id]) & mask;
+                while (bucketsCopy[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                bucketsCopy[i] = id + 1;
+            }
+            return new Symbols(bucketsCopy, hashesCopy, bytesCopy, namesCopy, size);
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean equals(final byte[] expect, final byte[] name, final int begin, final int length) {
+            if (expect.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (expect[i] != name[begin + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
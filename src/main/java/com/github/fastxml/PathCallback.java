@@ -0,0 +1,37 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * callback of PathSelector, it is called when the parser is on a selected value
+ * Created by weager on 2017/01/03.
+ */
+public interface PathCallback {
+
+    /**
+     * called when a path selects the current value. The parser is on ATTRIBUTE_VALUE for attribute paths, and on TEXT
+     * for text() and element paths, if the text is delivered in chunks, it is called for each chunk.
+     * Current value can be read by getString(), getInt() and other getters, but the parser should not be moved.
+     *
+     * @param pathIndex index of the path in PathSelector.compile()
+     * @param parser    the parser
+     * @return true to continue selecting, false to stop
+     * @throws ParseException
+     */
+    boolean onMatch(int pathIndex, FastXmlParser parser) throws ParseException;
+}
@@ -0,0 +1,400 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of simple paths compiled into an automaton, which selects values by walking the parser once.
+ * Supported paths are absolute location paths of child ("/") and descendant ("//") steps, each step is an element
+ * name or "*", optionally with a position such as "b[2]", and the last step may be "@name", "@*" or "text()":
+ * <li>/order/item/@id</li>
+ * <li>//price</li>
+ * <li>/a/b[2]/text()</li>
+ * A path ending with an element selects the text of the element, the same as text().
+ * Names are matched by NameSet, and the tags which can not be selected by any path are skipped by skipCurrentTag(),
+ * so their attributes and text are never parsed.
+ * A selector is immutable, so it can be shared by parsers in different threads.
+ * Created by weager on 2017/01/03.
+ */
+public final class PathSelector {
+    /**
+     * max count of steps in all paths of a selector
+     */
+    public final static int MAX_STEPS = 64;
+
+    private final static int ELEMENT = 0;
+    private final static int ATTRIBUTE = 1;
+    private final static int TEXT = 2;
+    private final static int INITIAL_DEPTH = 16;
+
+    private final String[] paths;
+    private final NameSet elementNames;
+    private final NameSet attributeNames;
+    // steps by index, steps of a path are adjacent
+    private final int stepCount;
+    private final int[] kinds;
+    private final int[] nameIndexes; // index in elementNames or attributeNames, NameSet.NOT_FOUND for "*"
+    private final int[] positions; // 0 if no position
+    private final boolean[] descendants;
+    private final int[] pathIndexes;
+    private final boolean hasPosition;
+    private final long initialSteps; // first step of each path
+
+    private PathSelector(String[] paths) {
+        this.paths = paths.clone();
+        List<String> elements = new ArrayList<String>();
+        List<String> attributes = new ArrayList<String>();
+        List<String[]> steps = new ArrayList<String[]>(); // {step, "/" or "//"}
+        List<Integer> stepPaths = new ArrayList<Integer>();
+        for (int i = 0; i < paths.length; i++) {
+            int count = splitPath(paths[i], steps);
+            for (int j = 0; j < count; j++) {
+                stepPaths.add(i);
+            }
+        }
+        if (steps.size() > MAX_STEPS) {
+            throw new IllegalArgumentException("too many steps, at most " + MAX_STEPS);
+        }
+
+        this.stepCount = steps.size();
+        this.kinds = new int[stepCount];
+        this.nameIndexes = new int[stepCount];
+        this.positions = new int[stepCount];
+        this.descendants = new boolean[stepCount];
+        this.pathIndexes = new int[stepCount];
+        boolean hasPosition = false;
+        long initialSteps = 0;
+        for (int i = 0; i < stepCount; i++) {
+            String path = paths[stepPaths.get(i)];
+            String step = steps.get(i)[0];
+            boolean first = i == 0 || stepPaths.get(i - 1).intValue() != stepPaths.get(i);
+            boolean last = i == stepCount - 1 || stepPaths.get(i + 1).intValue() != stepPaths.get(i);
+            pathIndexes[i] = stepPaths.get(i);
+            descendants[i] = "//".equals(steps.get(i)[1]);
+            if (first) {
+                initialSteps |= 1L << i;
+            }
+            if (step.equals("text()") || step.startsWith("@")) {
+                if (first || !last || descendants[i]) {
+                    throw new IllegalArgumentException("attribute or text() should be the last child step of an element: " + path);
+                }
+                if (step.startsWith("@")) {
+                    kinds[i] = ATTRIBUTE;
+                    nameIndexes[i] = indexOf(attributes, step.substring(1), path);
+                } else {
+                    kinds[i] = TEXT;
+                }
+            } else {
+                kinds[i] = ELEMENT;
+                int positionBegin = step.indexOf('[');
+                if (positionBegin >= 0) {
+                    if (!step.endsWith("]")) {
+                        throw new IllegalArgumentException("invalid position: " + path);
+                    }
+                    try {
+                        positions[i] = Integer.parseInt(step.substring(positionBegin + 1, step.length() - 1));
+                    } catch (java.lang.NumberFormatException e) {
+                        throw new IllegalArgumentException("invalid position: " + path);
+                    }
+                    if (positions[i] < 1) {
+                        throw new IllegalArgumentException("position should be at least 1: " + path);
+                    }
+                    hasPosition = true;
+                    step = step.substring(0, positionBegin);
+                }
+                nameIndexes[i] = indexOf(elements, step, path);
+            }
+        }
+        this.hasPosition = hasPosition;
+        this.initialSteps = initialSteps;
+        this.elementNames = new NameSet(elements.toArray(new String[elements.size()]));
+        this.attributeNames = new NameSet(attributes.toArray(new String[attributes.size()]));
+    }
+
+    /**
+     * compile paths into a selector
+     *
+     * @param paths paths of ASCII names, the index of a path is its position in the arguments
+     * @return selector
+     * @throws IllegalArgumentException if a path is invalid or there are too many steps
+     */
+    public static PathSelector compile(String... paths) {
+        return new PathSelector(paths);
+    }
+
+    /**
+     * split a path into steps
+     *
+     * @return count of steps
+     */
+    private static int splitPath(String path, List<String[]> steps) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("path should start with '/': " + path);
+        }
+        int count = 0;
+        int i = 0;
+        while (i < path.length()) {
+            String axis = path.startsWith("//", i) ? "//" : "/";
+            i += axis.length();
+            int end = path.indexOf('/', i);
+            if (end < 0) {
+                end = path.length();
+            }
+            String step = path.substring(i, end);
+            if (step.length() == 0) {
+                throw new IllegalArgumentException("empty step: " + path);
+            }
+            steps.add(new String[]{step, axis});
+            count++;
+            i = end;
+        }
+        return count;
+    }
+
+    /**
+     * index of name in names, the name will be added if absent. "*" means any name
+     */
+    private static int indexOf(List<String> names, String name, String path) {
+        if (name.equals("*")) {
+            return NameSet.NOT_FOUND;
+        }
+        if (name.length() == 0 || name.indexOf('[') >= 0 || name.indexOf(']') >= 0 || name.indexOf('@') >= 0) {
+            throw new IllegalArgumentException("invalid name in path: " + path);
+        }
+        int index = names.indexOf(name);
+        if (index < 0) {
+            index = names.size();
+            names.add(name);
+        }
+        return index;
+    }
+
+    /**
+     * walk the parser from its current event to the end of document, and call callback for each selected value.
+     * If the parser is on START_TAG, paths are relative to the current element, and walking stops at its end tag.
+     *
+     * @param parser   the parser, usually next() has not been called
+     * @param callback callback of selected values
+     * @return count of callback calls
+     * @throws ParseException
+     */
+    public int select(FastXmlParser parser, PathCallback callback) throws ParseException {
+        int count = 0;
+        // steps expecting children of the element at each depth, depth 0 is the document
+        long[] childSteps = new long[INITIAL_DEPTH];
+        // steps selecting attributes or text of the element at each depth
+        long[] attributeSteps = new long[INITIAL_DEPTH];
+        long[] textSteps = new long[INITIAL_DEPTH];
+        // count of matched children for steps with position, by depth * stepCount + step
+        int[] counters = hasPosition ? new int[INITIAL_DEPTH * stepCount] : null;
+        int baseDepth = parser.getDepth(); // paths are relative to current element if walking starts inside the document
+        childSteps[0] = initialSteps;
+        long matchedAttributeSteps = 0;
+
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            switch (event) {
+                case FastXmlParser.START_TAG: {
+                    int depth = parser.getDepth() - baseDepth;
+                    if (depth >= childSteps.length) {
+                        childSteps = grow(childSteps);
+                        attributeSteps = grow(attributeSteps);
+                        textSteps = grow(textSteps);
+                        if (counters != null) {
+                            int[] temp = new int[childSteps.length * stepCount];
+                            System.arraycopy(counters, 0, temp, 0, counters.length);
+                            counters = temp;
+                        }
+                    }
+                    long parentSteps = childSteps[depth - 1];
+                    long children = 0, attributes = 0, texts = 0;
+                    if (parentSteps != 0) {
+                        int nameIndex = parser.match(elementNames);
+                        for (long steps = parentSteps; steps != 0; steps &= steps - 1) {
+                            int step = Long.numberOfTrailingZeros(steps);
+                            if (descendants[step]) {
+                                children |= 1L << step; // keep expecting the step in descendants
+                            }
+                            if (nameIndexes[step] != NameSet.NOT_FOUND && nameIndexes[step] != nameIndex) {
+                                continue;
+                            }
+                            if (positions[step] > 0 && ++counters[(depth - 1) * stepCount + step] != positions[step]) {
+                                continue;
+                            }
+                            int nextStep = step + 1;
+                            if (nextStep == stepCount || pathIndexes[nextStep] != pathIndexes[step]) {
+                                texts |= 1L << step; // path ends with an element, select its text
+                            } else if (kinds[nextStep] == ELEMENT) {
+                                children |= 1L << nextStep;
+                            } else if (kinds[nextStep] == ATTRIBUTE) {
+                                attributes |= 1L << nextStep;
+                            } else {
+                                texts |= 1L << nextStep;
+                            }
+                        }
+                    }
+                    if (children == 0 && attributes == 0 && texts == 0) {
+                        parser.skipCurrentTag(); // nothing can be selected in this tag
+                        break;
+                    }
+                    childSteps[depth] = children;
+                    attributeSteps[depth] = attributes;
+                    textSteps[depth] = texts;
+                    if (counters != null && children != 0) {
+                        int begin = depth * stepCount;
+                        for (int i = begin; i < begin + stepCount; i++) {
+                            counters[i] = 0;
+                        }
+                    }
+                    break;
+                }
+                case FastXmlParser.ATTRIBUTE_NAME: {
+                    matchedAttributeSteps = 0;
+                    long steps = attributeSteps[parser.getDepth() - baseDepth];
+                    if (steps != 0) {
+                        int nameIndex = parser.match(attributeNames);
+                        for (; steps != 0; steps &= steps - 1) {
+                            int step = Long.numberOfTrailingZeros(steps);
+                            if (nameIndexes[step] == NameSet.NOT_FOUND || nameIndexes[step] == nameIndex) {
+                                matchedAttributeSteps |= 1L << step;
+                            }
+                        }
+                    }
+                    break;
+                }
+                case FastXmlParser.ATTRIBUTE_VALUE:
+                    for (long steps = matchedAttributeSteps; steps != 0; steps &= steps - 1) {
+                        count++;
+                        if (!callback.onMatch(pathIndexes[Long.numberOfTrailingZeros(steps)], parser)) {
+                            return count;
+                        }
+                    }
+                    break;
+                case FastXmlParser.TEXT:
+                    for (long steps = textSteps[parser.getDepth() - baseDepth]; steps != 0; steps &= steps - 1) {
+                        count++;
+                        if (!callback.onMatch(pathIndexes[Long.numberOfTrailingZeros(steps)], parser)) {
+                            return count;
+                        }
+                    }
+                    break;
+                case FastXmlParser.END_TAG:
+                case FastXmlParser.END_TAG_WITHOUT_TEXT:
+                    if (parser.getDepth() < baseDepth) { // current element at the beginning is closed
+                        return count;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * walk the parser and keep the first selected value of each path, text delivered in chunks is joined.
+     * Walking stops as soon as every path has got its value.
+     *
+     * @param parser the parser, usually next() has not been called
+     * @param result values by index of path, its length should be at least size(), null if nothing is selected, "" if the value is empty
+     * @return count of paths which have got their values
+     * @throws ParseException
+     */
+    public int selectFirst(FastXmlParser parser, String[] result) throws ParseException {
+        if (result.length < paths.length) {
+            throw new IllegalArgumentException("result length should be at least " + paths.length);
+        }
+        FirstValues values = new FirstValues(result, paths.length);
+        select(parser, values);
+        return values.count;
+    }
+
+    /**
+     * count of paths
+     *
+     * @return count of paths
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * get path by index
+     *
+     * @param index index of path
+     * @return path
+     */
+    public String getPath(int index) {
+        return paths[index];
+    }
+
+    private static long[] grow(long[] array) {
+        long[] temp = new long[array.length * 2];
+        System.arraycopy(array, 0, temp, 0, array.length);
+        return temp;
+    }
+
+    /**
+     * keeps first value of each path
+     */
+    private final static class FirstValues implements PathCallback {
+        private final String[] result;
+        private final boolean[] matched; // first value of the path has been seen, it may be empty
+        private final boolean[] continued; // text of the path is not finished
+        private final int size;
+        private int count = 0;
+        private int continuedCount = 0;
+
+        FirstValues(String[] result, int size) {
+            this.result = result;
+            this.size = size;
+            this.matched = new boolean[size];
+            this.continued = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = null;
+            }
+        }
+
+        public boolean onMatch(int pathIndex, FastXmlParser parser) throws ParseException {
+            if (!matched[pathIndex]) {
+                matched[pathIndex] = true;
+                result[pathIndex] = valueOf(parser);
+                count++;
+            } else if (continued[pathIndex]) {
+                result[pathIndex] = result[pathIndex] + valueOf(parser);
+            } else {
+                return true;
+            }
+            boolean hasMoreText = parser.hasMoreText();
+            if (continued[pathIndex] != hasMoreText) {
+                continued[pathIndex] = hasMoreText;
+                continuedCount += hasMoreText ? 1 : -1;
+            }
+            return count < size || continuedCount > 0;
+        }
+
+        /**
+         * empty value is "" instead of null, so that it's different from nothing selected
+         */
+        private static String valueOf(FastXmlParser parser) throws ParseException {
+            String value = parser.getStringWithDecoding();
+            return value == null ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * consumer of results of RecordMapper, it's called by one thread at a time
+ * Created by weager on 2017/01/06.
+ */
+public interface RecordConsumer<T> {
+
+    /**
+     * consume the result of a record
+     *
+     * @param recordIndex index of record in document
+     * @param result      result of RecordMapper
+     * @throws ParseException
+     */
+    void accept(int recordIndex, T result) throws ParseException;
+}
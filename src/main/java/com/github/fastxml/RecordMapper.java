@@ -0,0 +1,37 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * mapper of records, which parses a record into a result in worker threads of FastXmlPipeline
+ * Created by weager on 2017/01/06.
+ */
+public interface RecordMapper<T> {
+
+    /**
+     * parse a record into a result. The input of parser is the bytes of record only, so the record element is at depth 1,
+     * and next() has not been called. The parser will be reused for other records after returning.
+     * It may be called by different threads at the same time.
+     *
+     * @param recordIndex index of record in document
+     * @param parser      the parser of record
+     * @return result passed to RecordConsumer
+     * @throws ParseException
+     */
+    T map(int recordIndex, FastXmlParser parser) throws ParseException;
+}
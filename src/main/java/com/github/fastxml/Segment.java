@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import java.nio.charset.Charset;
+
+/**
+ * bytes of a record which is copied from the buffer of parser, segments are reused by FastXmlPipeline
+ * Created by weager on 2017/01/06.
+ */
+final class Segment {
+    byte[] bytes;
+    int length;
+    int index; // index of record in document
+    Charset charset; // charset of document
+    Object result; // result of mapper, for ordered delivery
+
+    Segment(int size) {
+        this.bytes = new byte[size];
+    }
+
+    /**
+     * set bytes of a tag, '&lt;' before the tag name is not included in the bytes
+     *
+     * @param src    bytes of document
+     * @param begin  index of tag name
+     * @param length length from tag name to the last '&gt;'
+     */
+    void setTag(byte[] src, int begin, int length) {
+        if (bytes.length < length + 1) {
+            bytes = new byte[Math.max(length + 1, bytes.length * 2)];
+        }
+        bytes[0] = '<';
+        System.arraycopy(src, begin, bytes, 1, length);
+        this.length = length + 1;
+    }
+
+    /**
+     * release the bytes larger than retained size, and the result
+     *
+     * @param retainedSize max size of bytes to be kept
+     * @param initialSize  size of new bytes if released
+     */
+    void recycle(int retainedSize, int initialSize) {
+        if (bytes.length > retainedSize) {
+            bytes = new byte[initialSize];
+        }
+        length = 0;
+        result = null;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a batch of matched elements published by FastXmlPublisher.subtrees(), each element is the bytes from its start tag to its end tag
+ * Created by weager on 2017/01/09.
+ */
+public final class SubtreeBatch {
+    private final List<byte[]> subtrees;
+    private final int firstIndex;
+    private final Charset charset;
+
+    SubtreeBatch(int capacity, int firstIndex, Charset charset) {
+        this.subtrees = new ArrayList<byte[]>(capacity);
+        this.firstIndex = firstIndex;
+        this.charset = charset;
+    }
+
+    void add(byte[] subtree) {
+        subtrees.add(subtree);
+    }
+
+    /**
+     * @return count of elements
+     */
+    public int size() {
+        return subtrees.size();
+    }
+
+    /**
+     * @return index of the first element of batch in document
+     */
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * @return charset of document, which should be used for parsing elements
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @param i index of element in batch
+     * @return bytes of element
+     */
+    public byte[] getBytes(int i) {
+        return subtrees.get(i);
+    }
+
+    /**
+     * create a parser of element, the element is at depth 1
+     *
+     * @param i index of element in batch
+     * @return FastXmlParser instance
+     * @throws ParseException
+     */
+    public FastXmlParser newParser(int i) throws ParseException {
+        return FastXmlFactory.newInstance(subtrees.get(i), charset);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * helpers for waiting parsing tasks
+ * Created by weager on 2017/01/05.
+ */
+final class Workers {
+
+    private Workers() {
+    }
+
+    /**
+     * wait for the result of task, ParseException, RuntimeException and Error thrown by task are thrown again
+     *
+     * @param future future of task
+     * @return result of task
+     * @throws ParseException
+     */
+    static <T> T get(Future<T> future) throws ParseException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ParseException.interrupted(e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * wait until all tasks finish, even if interrupted, so that no task is running after it returns.
+     * Failures of tasks and interruption are kept in failure, the first one wins, and interrupted status is restored at the end.
+     * Tasks should check failure to stop early, they should not be cancelled, since a cancelled task may be still running.
+     *
+     * @param futures futures of tasks
+     * @param failure the first failure of tasks
+     */
+    static void awaitAll(List<? extends Future<?>> futures, AtomicReference<Throwable> failure) {
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            for (; ; ) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    failure.compareAndSet(null, ParseException.interrupted(e)); // tasks stop soon
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                    break;
+                } catch (CancellationException e) {
+                    failure.compareAndSet(null, e);
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * throw the failure of task again, ParseException, RuntimeException and Error are thrown as they are,
+     * other exceptions are wrapped by ParseException
+     *
+     * @param failure failure of task, not null
+     * @return never returns, so that caller can write "throw rethrow(failure)"
+     * @throws ParseException
+     */
+    static ParseException rethrow(Throwable failure) throws ParseException {
+        if (failure instanceof ParseException) {
+            throw (ParseException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new ParseException(failure);
+    }
+
+    /**
+     * attach another failure to the failure which is thrown, as the cause at the end of its causes,
+     * because suppressed exceptions are not available before java 7.
+     * Nothing is attached if the last cause has been initialized to null.
+     *
+     * @param failure failure which is thrown
+     * @param other   another failure, which happened before or at the same time
+     */
+    static void attach(Throwable failure, Throwable other) {
+        Throwable last = failure;
+        while (last != other && last.getCause() != null) {
+            last = last.getCause();
+        }
+        if (last != other) {
+            try {
+                last.initCause(other);
+            } catch (IllegalStateException e) {
+                // cause of last has been set
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.exception;
+
+import com.github.fastxml.FastXmlParser;
+
+/**
+ * Thrown when a token can not fit in the buffer of max size, so that an oversized document can not exhaust the heap.
+ * Created by weager on 2016/12/31.
+ */
+public class BufferLimitException extends ParseException {
+    private final int maxBufferSize;
+
+    public BufferLimitException(String message, FastXmlParser parser, int maxBufferSize) {
+        super(message, parser);
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * @return max size of buffer in buffer policy
+     */
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    public static BufferLimitException bufferLimitExceeded(int maxBufferSize, FastXmlParser parser) {
+        return new BufferLimitException("token is larger than max buffer size: " + maxBufferSize, parser, maxBufferSize);
+    }
+}
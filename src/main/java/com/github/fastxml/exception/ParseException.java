@@ -15,9 +15,8 @@
  */
 package com.github.fastxml.exception;
 
+import com.github.fastxml.AbstractFastXmlParser;
 import com.github.fastxml.FastXmlParser;
-import com.github.fastxml.FastXmlParser4ByteArray;
-import com.github.fastxml.FastXmlParser4InputStream;
 
 import java.io.IOException;
 
@@ -54,23 +53,10 @@ public class ParseException extends Exception {
         if (parser == null) {
             return;
         }
-        if (parser instanceof FastXmlParser4ByteArray) {
-            byte[] docBytes = parser.getDocument();
-            int length = docBytes.length;
-            row = 1;
-            int cursor = parser.getCursor();
-            int lastNewLine = 1;
-            for (int i = 0; i <= cursor; i++) {
-                if (docBytes[i] == '\n') {
-                    row++;
-                    lastNewLine = i;
-                }
-            }
-            column = cursor - lastNewLine;
-        } else {
-            FastXmlParser4InputStream parser4InputStream = (FastXmlParser4InputStream) parser;
-            row = parser4InputStream.getRow();
-            column = parser4InputStream.getColumn();
+        if (parser instanceof AbstractFastXmlParser) {
+            AbstractFastXmlParser abstractParser = (AbstractFastXmlParser) parser;
+            row = abstractParser.getRow();
+            column = abstractParser.getColumn();
         }
     }
 
@@ -119,6 +105,10 @@ public class ParseException extends Exception {
         return new ParseException(e);
     }
 
+    public static ParseException interrupted(InterruptedException e) {
+        return new ParseException("interrupted while waiting for parsing tasks", e);
+    }
+
     public int getRow() {
         return row;
     }
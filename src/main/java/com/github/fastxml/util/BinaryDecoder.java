@@ -0,0 +1,266 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.util;
+
+import com.github.fastxml.exception.ParseException;
+
+/**
+ * A reusable decoder of base64 or hex text, which decodes the raw bytes of text into binary bytes without creating chars.
+ * Whitespace, "<![CDATA[" and "]]>" are skipped. An incomplete base64 quantum, a pending hex digit or a partial CDATA marker
+ * is kept between calls of decode(), so the text can be decoded block by block. The tail is checked by end().
+ * Both standard base64 and url safe base64 alphabets are accepted, the padding '=' is optional.
+ * Created by weager on 2016/12/30.
+ */
+public final class BinaryDecoder {
+    /**
+     * values of bytes, -1 means illegal byte
+     */
+    private final static byte ILLEGAL = -1;
+    private final static byte WHITESPACE = -2;
+    private final static byte PADDING = -3; // '='
+    private final static byte MARKER = -4; // '<' or ']', the beginning of CDATA markers
+
+    private final static byte[] BASE64_VALUES = new byte[256];
+    private final static byte[] HEX_VALUES = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            BASE64_VALUES[i] = ILLEGAL;
+            HEX_VALUES[i] = ILLEGAL;
+        }
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+        BASE64_VALUES['+'] = BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['/'] = BASE64_VALUES['_'] = 63;
+        BASE64_VALUES['='] = PADDING;
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+        final byte[] whitespaces = {' ', '\t', '\r', '\n'};
+        for (byte b : whitespaces) {
+            BASE64_VALUES[b] = HEX_VALUES[b] = WHITESPACE;
+        }
+        BASE64_VALUES['<'] = HEX_VALUES['<'] = MARKER;
+        BASE64_VALUES[']'] = HEX_VALUES[']'] = MARKER;
+    }
+
+    private final static byte[] CDATA_BEGIN = {'<', '!', '[', 'C', 'D', 'A', 'T', 'A', '['};
+    private final static byte[] CDATA_END = {']', ']', '>'};
+
+    private boolean hex;
+    private int bits; // pending bits of current base64 quantum or hex byte
+    private int count; // count of pending chars
+    private boolean padded; // found '=', only padding and whitespace can follow
+    private boolean inCDATA;
+    private int markerIndex; // count of matched bytes of current CDATA marker, 0 if not in a marker
+
+    /**
+     * reset the decoder for a new text
+     *
+     * @param hex true for hex text, false for base64 text
+     * @return this decoder
+     */
+    public BinaryDecoder begin(boolean hex) {
+        this.hex = hex;
+        this.bits = 0;
+        this.count = 0;
+        this.padded = false;
+        this.inCDATA = false;
+        this.markerIndex = 0;
+        return this;
+    }
+
+    /**
+     * max count of bytes which may be written by one call of decode()
+     *
+     * @param length length of text bytes
+     * @return max count of decoded bytes
+     */
+    public int maxDecodedLength(int length) {
+        return hex ? (length + 1) / 2 : (length + 3) / 4 * 3;
+    }
+
+    /**
+     * decode a block of text bytes
+     *
+     * @param bytes  text bytes
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be decoded
+     * @param dest   destination, at least maxDecodedLength(length) bytes should be available from offset
+     * @param offset the beginning index of destination
+     * @return count of decoded bytes
+     * @throws ParseException if there is an illegal byte
+     */
+    public int decode(final byte[] bytes, final int begin, final int length, final byte[] dest, final int offset) throws ParseException {
+        return hex ? decodeHex(bytes, begin, begin + length, dest, offset) : decodeBase64(bytes, begin, begin + length, dest, offset);
+    }
+
+    /**
+     * finish decoding, an unpadded base64 tail will be written into destination
+     *
+     * @param dest   destination, at least 2 bytes should be available from offset
+     * @param offset the beginning index of destination
+     * @return count of decoded bytes
+     * @throws ParseException if the text is incomplete
+     */
+    public int end(final byte[] dest, final int offset) throws ParseException {
+        if (markerIndex > 0 || inCDATA) {
+            throw ParseException.formatError("CDATA block does not closed");
+        }
+        if (hex) {
+            if (count > 0) {
+                throw ParseException.formatError("hex text should have even digits");
+            }
+            return 0;
+        }
+        return flushBase64(dest, offset);
+    }
+
+    private int decodeBase64(final byte[] bytes, final int begin, final int end, final byte[] dest, final int offset) throws ParseException {
+        final byte[] values = BASE64_VALUES;
+        int i = begin;
+        int j = offset;
+        while (i < end) {
+            if (count == 0 && markerIndex == 0 && i + 4 <= end) { // decode a whole quantum at a time
+                final int v0 = values[bytes[i] & 0xFF];
+                final int v1 = values[bytes[i + 1] & 0xFF];
+                final int v2 = values[bytes[i + 2] & 0xFF];
+                final int v3 = values[bytes[i + 3] & 0xFF];
+                if ((v0 | v1 | v2 | v3) >= 0 && !padded) {
+                    final int quantum = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+                    dest[j] = (byte) (quantum >> 16);
+                    dest[j + 1] = (byte) (quantum >> 8);
+                    dest[j + 2] = (byte) quantum;
+                    j += 3;
+                    i += 4;
+                    continue;
+                }
+            }
+            final byte b = bytes[i++];
+            if (markerIndex > 0) {
+                matchMarker(b);
+                continue;
+            }
+            final int value = values[b & 0xFF];
+            if (value >= 0) {
+                if (padded) {
+                    throw ParseException.formatError("base64 text should end after padding");
+                }
+                bits = bits << 6 | value;
+                if (++count == 4) {
+                    dest[j] = (byte) (bits >> 16);
+                    dest[j + 1] = (byte) (bits >> 8);
+                    dest[j + 2] = (byte) bits;
+                    j += 3;
+                    bits = 0;
+                    count = 0;
+                }
+            } else if (value == PADDING) {
+                if (!padded) {
+                    j += flushBase64(dest, j);
+                    padded = true;
+                }
+            } else if (value == MARKER) {
+                matchMarker(b);
+            } else if (value != WHITESPACE) {
+                throw ParseException.formatError("illegal base64 character: " + (char) (b & 0xFF));
+            }
+        }
+        return j - offset;
+    }
+
+    /**
+     * write the bytes of an incomplete base64 quantum
+     */
+    private int flushBase64(final byte[] dest, final int offset) throws ParseException {
+        int written;
+        switch (count) {
+            case 0:
+                written = 0;
+                break;
+            case 2: // 12 bits, one byte
+                dest[offset] = (byte) (bits >> 4);
+                written = 1;
+                break;
+            case 3: // 18 bits, two bytes
+                dest[offset] = (byte) (bits >> 10);
+                dest[offset + 1] = (byte) (bits >> 2);
+                written = 2;
+                break;
+            default:
+                throw ParseException.formatError("base64 text is truncated");
+        }
+        bits = 0;
+        count = 0;
+        return written;
+    }
+
+    private int decodeHex(final byte[] bytes, final int begin, final int end, final byte[] dest, final int offset) throws ParseException {
+        final byte[] values = HEX_VALUES;
+        int i = begin;
+        int j = offset;
+        while (i < end) {
+            if (count == 0 && markerIndex == 0 && i + 2 <= end) { // decode a whole byte at a time
+                final int high = values[bytes[i] & 0xFF];
+                final int low = values[bytes[i + 1] & 0xFF];
+                if ((high | low) >= 0) {
+                    dest[j++] = (byte) (high << 4 | low);
+                    i += 2;
+                    continue;
+                }
+            }
+            final byte b = bytes[i++];
+            if (markerIndex > 0) {
+                matchMarker(b);
+                continue;
+            }
+            final int value = values[b & 0xFF];
+            if (value >= 0) {
+                if (count == 0) {
+                    bits = value;
+                    count = 1;
+                } else {
+                    dest[j++] = (byte) (bits << 4 | value);
+                    count = 0;
+                }
+            } else if (value == MARKER) {
+                matchMarker(b);
+            } else if (value != WHITESPACE) {
+                throw ParseException.formatError("illegal hex character: " + (char) (b & 0xFF));
+            }
+        }
+        return j - offset;
+    }
+
+    /**
+     * match the next byte of "<![CDATA[" out of CDATA block, or "]]>" in CDATA block
+     */
+    private void matchMarker(final byte b) throws ParseException {
+        final byte[] marker = inCDATA ? CDATA_END : CDATA_BEGIN;
+        if (b != marker[markerIndex]) {
+            throw ParseException.formatError("illegal character in binary text: " + (char) (b & 0xFF));
+        }
+        if (++markerIndex == marker.length) {
+            markerIndex = 0;
+            inCDATA = !inCDATA;
+        }
+    }
+}
@@ -80,4 +80,102 @@ public class ByteUtils {
         return b >= 0 && b <= 122 && (byteType[b] & 2) > 0;
     }
 
+    private final static long ONES = 0x0101010101010101L;
+    private final static long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * repeat a byte 8 times in a long, as the pattern for scanning 8 bytes at a time
+     *
+     * @param b byte to be repeated
+     * @return pattern
+     */
+    public final static long repeat(final byte b) {
+        return (b & 0xFFL) * ONES;
+    }
+
+    /**
+     * find out the bytes equal to pattern in a word of 8 bytes, the lowest byte of word is the first byte.
+     * The high bit of the first matched byte is set exactly, but higher bytes after it may be matched falsely.
+     *
+     * @param word    8 bytes in little endian order
+     * @param pattern pattern created by repeat()
+     * @return 0 if not found, otherwise use firstMatchedByte() to get index of the first matched byte
+     */
+    public final static long matchByte(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        return (x - ONES) & ~x & HIGH_BITS;
+    }
+
+    /**
+     * get index of the first matched byte
+     *
+     * @param match result of matchByte(), should not be 0
+     * @return index of the first matched byte in word, 0~7
+     */
+    public final static int firstMatchedByte(final long match) {
+        return Long.numberOfTrailingZeros(match) >>> 3;
+    }
+
+    /**
+     * get the bytes before index in word, other bytes will be cleared
+     *
+     * @param word  8 bytes in little endian order
+     * @param index index of byte in word, 0~7
+     * @return bytes before index
+     */
+    public final static long bytesBefore(final long word, final int index) {
+        return word & ((1L << (index << 3)) - 1);
+    }
+
+    /**
+     * read 8 bytes in little endian order, the byte at index will be the lowest byte
+     *
+     * @param bytes the byte array
+     * @param index the beginning index, there should be at least 8 bytes from it
+     * @return 8 bytes
+     */
+    public final static long readLong(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xFFL)
+                | (bytes[index + 1] & 0xFFL) << 8
+                | (bytes[index + 2] & 0xFFL) << 16
+                | (bytes[index + 3] & 0xFFL) << 24
+                | (bytes[index + 4] & 0xFFL) << 32
+                | (bytes[index + 5] & 0xFFL) << 40
+                | (bytes[index + 6] & 0xFFL) << 48
+                | (bytes[index + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * check whether 8 bytes are all '0'~'9'
+     *
+     * @param word 8 bytes in little endian order
+     * @return true if all bytes are digits
+     */
+    public final static boolean isEightDigits(final long word) {
+        return (((word + 0x4646464646464646L) | (word - 0x3030303030303030L)) & HIGH_BITS) == 0;
+    }
+
+    /**
+     * convert 8 digits to integer by 3 multiplications, the lowest byte is the most significant digit
+     *
+     * @param word 8 digits in little endian order, should be checked by isEightDigits()
+     * @return integer 0~99999999
+     */
+    public final static int eightDigitsToInt(long word) {
+        word -= 0x3030303030303030L;
+        word = (word * 10 + (word >>> 8)) & 0x00FF00FF00FF00FFL; // 2 digits in 2 bytes
+        word = (word * 100 + (word >>> 16)) & 0x0000FFFF0000FFFFL; // 4 digits in 4 bytes
+        return (int) (word * 10000 + (word >>> 32));
+    }
+
+    /**
+     * check whether all bytes have been scanned are ASCII
+     *
+     * @param bytes bytes or words of 8 bytes combined by '|'
+     * @return true if no byte is greater than 127
+     */
+    public final static boolean isAscii(final long bytes) {
+        return (bytes & HIGH_BITS) == 0;
+    }
+
 }
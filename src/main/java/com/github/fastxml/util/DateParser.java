@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.util;
+
+import com.github.fastxml.exception.NumberFormatException;
+
+/**
+ * Convert ISO-8601 date and date-time bytes to epoch day or epoch milliseconds directly, without creating any String.
+ * Created by weager on 2016/12/29.
+ */
+final class DateParser {
+    private final static long MILLIS_PER_DAY = 86400000L;
+    private final static int[] DAYS_OF_MONTH = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private DateParser() {
+    }
+
+    /**
+     * parse date such as "2016-12-29" to the count of days from 1970-01-01, whitespace around the date is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return epoch day
+     * @throws NumberFormatException
+     */
+    static long parseEpochDay(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        if (dateEnd(bytes, i, last) != last) {
+            throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+        }
+        final long epochDay = epochDay(bytes, i, last);
+        if (epochDay == Long.MIN_VALUE) {
+            throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+        }
+        return epochDay;
+    }
+
+    /**
+     * parse date-time such as "2016-12-29T08:30:00.123+08:00" to milliseconds from 1970-01-01T00:00:00Z,
+     * whitespace around the date-time is ignored.
+     * Time and zone offset are optional, the time is midnight if it's absent, and the zone is UTC if offset is absent.
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return epoch milliseconds
+     * @throws NumberFormatException
+     */
+    static long parseEpochMillis(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        int p = dateEnd(bytes, i, last);
+        final long epochDay = p < 0 ? Long.MIN_VALUE : epochDay(bytes, i, p);
+        if (epochDay == Long.MIN_VALUE) {
+            throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+        }
+        long millis = epochDay * MILLIS_PER_DAY;
+
+        if (p < last && (bytes[p] == 'T' || bytes[p] == 't')) { // time: HH:mm[:ss[.SSS]]
+            final int hour = twoDigits(bytes, p + 1, last);
+            final int minute = p + 3 < last && bytes[p + 3] == ':' ? twoDigits(bytes, p + 4, last) : -1;
+            int second = 0;
+            p += 6;
+            if (p < last && bytes[p] == ':') {
+                second = twoDigits(bytes, p + 1, last);
+                p += 3;
+                if (p < last && (bytes[p] == '.' || bytes[p] == ',')) { // fraction, only milliseconds is kept
+                    final int fractionBegin = ++p;
+                    int fraction = 0;
+                    int digit;
+                    for (; p < last && (digit = bytes[p] - '0') >= 0 && digit <= 9; p++) {
+                        if (p - fractionBegin < 3) {
+                            fraction = fraction * 10 + digit;
+                        }
+                    }
+                    if (p == fractionBegin) {
+                        throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+                    }
+                    for (int digits = p - fractionBegin; digits < 3; digits++) {
+                        fraction *= 10;
+                    }
+                    millis += fraction;
+                }
+            }
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+            }
+            millis += ((hour * 60 + minute) * 60 + second) * 1000L;
+        }
+
+        if (p < last && (bytes[p] == 'Z' || bytes[p] == 'z')) { // UTC
+            p++;
+        } else if (p < last && (bytes[p] == '+' || bytes[p] == '-')) { // zone offset: +hh[[:]mm]
+            final boolean negative = bytes[p] == '-';
+            final int offsetHour = twoDigits(bytes, p + 1, last);
+            int offsetMinute = 0;
+            p += 3;
+            if (p < last) {
+                if (bytes[p] == ':') {
+                    p++;
+                }
+                offsetMinute = twoDigits(bytes, p, last);
+                p += 2;
+            }
+            if (offsetHour < 0 || offsetHour > 18 || offsetMinute < 0 || offsetMinute > 59
+                    || offsetHour == 18 && offsetMinute != 0) { // offset is within +-18:00
+                throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+            }
+            final long offsetMillis = (offsetHour * 60 + offsetMinute) * 60000L;
+            millis += negative ? offsetMillis : -offsetMillis;
+        }
+        if (p != last) {
+            throw NumberFormatException.formatException(ParseUtils.toString(bytes, begin, length), null);
+        }
+        return millis;
+    }
+
+    /**
+     * find out the end of date: [+-]yyyy-MM-dd, year has 4~9 digits
+     *
+     * @return the index after date, or -1 if it's not a date
+     */
+    private static int dateEnd(final byte[] bytes, final int begin, final int last) {
+        int p = begin;
+        if (p < last && (bytes[p] == '-' || bytes[p] == '+')) {
+            p++;
+        }
+        final int yearBegin = p;
+        while (p < last && bytes[p] >= '0' && bytes[p] <= '9') {
+            p++;
+        }
+        if (p - yearBegin < 4 || p - yearBegin > 9 || p + 6 > last || bytes[p] != '-' || bytes[p + 3] != '-') {
+            return -1;
+        }
+        return p + 6;
+    }
+
+    /**
+     * convert date to epoch day
+     *
+     * @param dateEnd the index after date, returned by dateEnd()
+     * @return epoch day, or Long.MIN_VALUE if month or day is invalid
+     */
+    private static long epochDay(final byte[] bytes, final int begin, final int dateEnd) {
+        int p = begin;
+        final boolean negative = bytes[p] == '-';
+        if (negative || bytes[p] == '+') {
+            p++;
+        }
+        final int yearEnd = dateEnd - 6;
+        long year = 0;
+        for (; p < yearEnd; p++) {
+            year = year * 10 + (bytes[p] - '0');
+        }
+        if (negative) {
+            year = -year;
+        }
+        final int month = twoDigits(bytes, yearEnd + 1, dateEnd);
+        final int day = twoDigits(bytes, yearEnd + 4, dateEnd);
+        if (month < 1 || month > 12 || day < 1 || day > DAYS_OF_MONTH[month]
+                && !(month == 2 && day == 29 && isLeapYear(year))) {
+            return Long.MIN_VALUE;
+        }
+
+        // days from civil, see http://howardhinnant.github.io/date_algorithms.html
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = (y >= 0 ? y : y - 399) / 400;
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static boolean isLeapYear(final long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @return two digits number, or -1 if they are not digits
+     */
+    private static int twoDigits(final byte[] bytes, final int begin, final int last) {
+        if (begin + 2 > last) {
+            return -1;
+        }
+        final int high = bytes[begin] - '0';
+        final int low = bytes[begin + 1] - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            return -1;
+        }
+        return high * 10 + low;
+    }
+}
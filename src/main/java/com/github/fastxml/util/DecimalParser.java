@@ -0,0 +1,308 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.util;
+
+import com.github.fastxml.exception.NumberFormatException;
+
+import java.math.BigInteger;
+
+/**
+ * Convert decimal bytes to double or float directly, without creating any String.
+ * Simple numbers are converted by exact floating arithmetic (Clinger's fast path), others with no more than
+ * 19 significant digits are converted by Eisel-Lemire algorithm, and the rest cases, such as "NaN", "Infinity",
+ * hexadecimal, are converted by JDK.
+ * Created by weager on 2016/12/28.
+ */
+final class DecimalParser {
+
+    private final static double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private final static float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private final static int DOUBLE_EXPLICIT_BITS = 52;
+    private final static int FLOAT_EXPLICIT_BITS = 23;
+
+    /**
+     * a NaN which is never returned by toBits() as a number
+     */
+    private final static long UNDECIDED = 0x7FF0000000000001L;
+
+    private final static int SMALLEST_POWER_OF_TEN = -342;
+    private final static int LARGEST_POWER_OF_TEN = 308;
+
+    /**
+     * 128 bits truncated 5^q (q: -342~308), the most significant bit is always set, two longs for each q
+     */
+    private final static long[] POWERS_OF_FIVE = powersOfFive();
+
+    private DecimalParser() {
+    }
+
+    /**
+     * parse bytes to double, whitespace around the number is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return double number parsed from bytes
+     * @throws NumberFormatException
+     */
+    static double parseDouble(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        final long bits = toBits(bytes, begin, length, false);
+        if (bits != UNDECIDED) {
+            return Double.longBitsToDouble(bits);
+        }
+        try {
+            return Double.parseDouble(ParseUtils.parseString(bytes, begin, length));
+        } catch (Exception e) {
+            throw NumberFormatException.formatException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * parse bytes to float, whitespace around the number is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return float number parsed from bytes
+     * @throws NumberFormatException
+     */
+    static float parseFloat(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        final long bits = toBits(bytes, begin, length, true);
+        if (bits != UNDECIDED) {
+            return Float.intBitsToFloat((int) bits);
+        }
+        try {
+            return Float.parseFloat(ParseUtils.parseString(bytes, begin, length));
+        } catch (Exception e) {
+            throw NumberFormatException.formatException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * parse [whitespace][+-]digits[.digits][(e|E)[+-]digits][whitespace] to bits of double or float
+     *
+     * @param toFloat true to get bits of float in the low 32 bits, otherwise bits of double
+     * @return bits of the number, or UNDECIDED if bytes are not in this format, or there are more than 19
+     * significant digits, or it can not be decided by Eisel-Lemire algorithm
+     */
+    private static long toBits(final byte[] bytes, int begin, final int length, final boolean toFloat) {
+        int last = begin + length;
+        while (begin < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[begin])) {
+            begin++;
+        }
+        while (last > begin && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        boolean negative = false;
+        if (begin < last && (bytes[begin] == '-' || bytes[begin] == '+')) {
+            negative = bytes[begin] == '-';
+            begin++;
+        }
+
+        long mantissa = 0; // unsigned
+        int exponent = 0;
+        int digits = 0; // count of significant digits
+        boolean hasDigits = false;
+        int digit;
+        for (; begin < last && (digit = bytes[begin] - '0') >= 0 && digit <= 9; begin++) { // integer part
+            hasDigits = true;
+            if (mantissa != 0 || digit != 0) {
+                mantissa = mantissa * 10 + digit;
+                digits++;
+            }
+        }
+        if (begin < last && bytes[begin] == '.') { // fraction part
+            begin++;
+            for (; begin < last && (digit = bytes[begin] - '0') >= 0 && digit <= 9; begin++) {
+                hasDigits = true;
+                if (mantissa != 0 || digit != 0) {
+                    mantissa = mantissa * 10 + digit;
+                    digits++;
+                }
+                exponent--;
+            }
+        }
+        if (!hasDigits || digits > 19) {
+            return UNDECIDED;
+        }
+        if (begin < last && (bytes[begin] == 'e' || bytes[begin] == 'E')) { // exponent part
+            begin++;
+            boolean negativeExponent = false;
+            if (begin < last && (bytes[begin] == '-' || bytes[begin] == '+')) {
+                negativeExponent = bytes[begin] == '-';
+                begin++;
+            }
+            final int exponentBegin = begin;
+            int explicitExponent = 0;
+            for (; begin < last && (digit = bytes[begin] - '0') >= 0 && digit <= 9; begin++) {
+                if (explicitExponent < 100000) { // big enough to be zero or infinity
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+            if (begin == exponentBegin) {
+                return UNDECIDED;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (begin != last) { // such as suffix 'd' or 'f', let JDK decide
+            return UNDECIDED;
+        }
+
+        long bits;
+        if (toFloat) {
+            if (mantissa == 0) {
+                bits = 0;
+            } else if (exponent >= -10 && exponent <= 10 && mantissa > 0 && mantissa <= (1L << 24)) { // exact
+                final float value = (float) mantissa;
+                bits = Float.floatToRawIntBits(exponent < 0
+                        ? value / FLOAT_POWERS_OF_TEN[-exponent] : value * FLOAT_POWERS_OF_TEN[exponent]);
+            } else {
+                bits = eiselLemire(mantissa, exponent, FLOAT_EXPLICIT_BITS, -127, 0xFF, -65, 38, -17, 10);
+                if (bits < 0) {
+                    return UNDECIDED;
+                }
+            }
+            return negative ? (bits | 0x80000000L) & 0xFFFFFFFFL : bits;
+        } else {
+            if (mantissa == 0) {
+                bits = 0;
+            } else if (exponent >= -22 && exponent <= 22 && mantissa > 0 && mantissa <= (1L << 53)) { // exact
+                final double value = (double) mantissa;
+                bits = Double.doubleToRawLongBits(exponent < 0
+                        ? value / DOUBLE_POWERS_OF_TEN[-exponent] : value * DOUBLE_POWERS_OF_TEN[exponent]);
+            } else {
+                bits = eiselLemire(mantissa, exponent, DOUBLE_EXPLICIT_BITS, -1023, 0x7FF,
+                        SMALLEST_POWER_OF_TEN, LARGEST_POWER_OF_TEN, -4, 23);
+                if (bits < 0) {
+                    return UNDECIDED;
+                }
+            }
+            return negative ? bits | Long.MIN_VALUE : bits;
+        }
+    }
+
+    /**
+     * Eisel-Lemire algorithm, see "Number Parsing at a Gigabyte per Second" by Daniel Lemire
+     *
+     * @param w the decimal mantissa, unsigned and not zero
+     * @param q the decimal exponent
+     * @return bits of the floating number without sign, or -1 if it can not be decided
+     */
+    private static long eiselLemire(long w, final int q, final int explicitBits, final int minimumExponent,
+                                    final int infinitePower, final int smallestPowerOfTen, final int largestPowerOfTen,
+                                    final int minExponentRoundToEven, final int maxExponentRoundToEven) {
+        if (q < smallestPowerOfTen) {
+            return 0;
+        }
+        if (q > largestPowerOfTen) {
+            return (long) infinitePower << explicitBits;
+        }
+        final int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        // the high 128 bits of w * 5^q
+        final int index = (q - SMALLEST_POWER_OF_TEN) << 1;
+        long low = w * POWERS_OF_FIVE[index];
+        long high = multiplyHigh(w, POWERS_OF_FIVE[index]);
+        final long precisionMask = -1L >>> (explicitBits + 3);
+        if ((high & precisionMask) == precisionMask) { // need more precision
+            final long secondHigh = multiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (unsignedLessThan(low, secondHigh)) {
+                high++;
+            }
+        }
+        if (low == -1L && (q < -27 || q > 55)) {
+            return -1;
+        }
+
+        final int upperBit = (int) (high >>> 63);
+        final int shift = upperBit + 64 - explicitBits - 3;
+        long mantissa = high >>> shift;
+        int power2 = ((217706 * q) >> 16) + 63 + upperBit - lz - minimumExponent;
+        if (power2 <= 0) { // subnormal
+            if (-power2 + 1 >= 64) {
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << explicitBits) ? 0 : 1;
+            return mantissa | ((long) power2 << explicitBits);
+        }
+        if ((low == 0 || low == 1) && q >= minExponentRoundToEven && q <= maxExponentRoundToEven
+                && (mantissa & 3) == 1 && (mantissa << shift) == high) { // exactly halfway, round to even
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << explicitBits)) {
+            mantissa = 1L << explicitBits;
+            power2++;
+        }
+        mantissa &= ~(1L << explicitBits);
+        if (power2 >= infinitePower) {
+            return (long) infinitePower << explicitBits;
+        }
+        return mantissa | ((long) power2 << explicitBits);
+    }
+
+    /**
+     * the high 64 bits of unsigned 128 bits product
+     */
+    private static long multiplyHigh(final long x, final long y) {
+        final long x0 = x & 0xFFFFFFFFL;
+        final long x1 = x >>> 32;
+        final long y0 = y & 0xFFFFFFFFL;
+        final long y1 = y >>> 32;
+        final long p00 = x0 * y0;
+        final long p10 = x1 * y0;
+        final long middle = (p00 >>> 32) + (p10 & 0xFFFFFFFFL) + x0 * y1;
+        return x1 * y1 + (p10 >>> 32) + (middle >>> 32);
+    }
+
+    private static boolean unsignedLessThan(final long x, final long y) {
+        return (x + Long.MIN_VALUE) < (y + Long.MIN_VALUE);
+    }
+
+    private static long[] powersOfFive() {
+        final long[] table = new long[(LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1) * 2];
+        final BigInteger five = BigInteger.valueOf(5);
+        final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; q++) {
+            BigInteger power;
+            if (q >= 0) {
+                power = five.pow(q);
+            } else { // reciprocal of 5^-q, rounded up
+                final BigInteger power5 = five.pow(-q);
+                final int z = power5.subtract(BigInteger.ONE).bitLength(); // 2^z >= 5^-q
+                final int b = q >= -27 ? z + 127 : 2 * z + 128;
+                power = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+            }
+            // keep the most significant 128 bits
+            final int bitLength = power.bitLength();
+            power = bitLength > 128 ? power.shiftRight(bitLength - 128) : power.shiftLeft(128 - bitLength);
+            final int index = (q - SMALLEST_POWER_OF_TEN) << 1;
+            table[index] = power.shiftRight(64).longValue();
+            table[index + 1] = power.and(mask).longValue();
+        }
+        return table;
+    }
+}
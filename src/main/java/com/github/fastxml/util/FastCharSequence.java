@@ -0,0 +1,222 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.fastxml.util;
+
+import com.github.fastxml.exception.ParseException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A reusable char sequence holding decoded text. UTF-8, ISO-8859-1 and US-ASCII are decoded in one pass, for other
+ * charsets the charset decoder and the nio buffers wrapping the char array are kept between decodings,
+ * so decoding text into it allocates nothing once the char array is large enough.
+ * The content will be overwritten by the next decoding, call toString() if the text should be kept.
+ * Created by weager on 2016/12/26.
+ */
+public final class FastCharSequence implements CharSequence {
+    private final static int DEFAULT_LENGTH = 64;
+
+    private char[] chars = new char[DEFAULT_LENGTH]; // decoded chars holder
+    private int length = 0; // count of decoded chars
+    private final FastStringBuilder sb = new FastStringBuilder(chars); // writes back into chars
+
+    private Charset charset; // charset of decoder
+    private CharsetDecoder decoder;
+    private byte[] wrappedBytes; // byte array wrapped by byteBuffer
+    private ByteBuffer byteBuffer;
+    private CharBuffer charBuffer; // wraps chars
+
+    /**
+     * decode bytes with charset, remove "<![CDATA[" and "]]>" and replace entity reference, the same as
+     * ParseUtils.parseStringWithDecoding(), but the result is kept in this char sequence.
+     *
+     * @param bytes   the byte array
+     * @param begin   the beginning index, inclusive.
+     * @param length  the length of bytes need to be decoded
+     * @param charset charset of bytes
+     * @return this char sequence
+     * @throws ParseException
+     */
+    public FastCharSequence decode(final byte[] bytes, final int begin, final int length, final Charset charset) throws ParseException {
+        if (ParseUtils.isSinglePassCharset(charset)) {
+            ensureCapacity(length);
+            sb.reset(chars);
+            ParseUtils.parseCharsWithDecoding(bytes, begin, length, charset, sb);
+            this.length = sb.length();
+            return this;
+        }
+
+        // other charsets are decoded by CharsetDecoder at first
+        decodeChars(bytes, begin, length, charset);
+
+        // remove CDATA markers and replace entity references in place
+        sb.reset(chars);
+        ParseUtils.parseCDATAAndEntityReference(chars, charBuffer.position(), sb);
+        this.length = sb.length();
+        return this;
+    }
+
+    /**
+     * decode bytes of CDATA block content with charset, markers and entity references in it are kept as plain text.
+     *
+     * @param bytes   the byte array
+     * @param begin   the beginning index, inclusive.
+     * @param length  the length of bytes need to be decoded
+     * @param charset charset of bytes
+     * @return this char sequence
+     * @throws ParseException
+     */
+    public FastCharSequence decodeCDATA(final byte[] bytes, final int begin, final int length, final Charset charset) throws ParseException {
+        decodeChars(bytes, begin, length, charset);
+        this.length = charBuffer.position();
+        return this;
+    }
+
+    /**
+     * decode bytes into chars by CharsetDecoder, the count of chars is the position of charBuffer
+     */
+    private void decodeChars(final byte[] bytes, final int begin, final int length, final Charset charset) throws ParseException {
+        if (decoder == null || this.charset != charset) {
+            this.charset = charset;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        if (wrappedBytes != bytes) {
+            wrappedBytes = bytes;
+            byteBuffer = ByteBuffer.wrap(bytes);
+        }
+        ensureCapacity((int) (length * (double) decoder.maxCharsPerByte()) + 1);
+        byteBuffer.limit(begin + length);
+        byteBuffer.position(begin);
+        charBuffer.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(byteBuffer, charBuffer, true);
+        if (!result.isUnderflow() || !decoder.flush(charBuffer).isUnderflow()) {
+            throw ParseException.formatError("bytes can not be decoded by " + charset.name());
+        }
+    }
+
+    /**
+     * clear decoded chars and release the byte array wrapped for decoding, char array is kept for reusing
+     */
+    public void clear() {
+        this.length = 0;
+        this.wrappedBytes = null;
+        this.byteBuffer = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (chars.length < capacity) {
+            chars = new char[Math.max(capacity, chars.length * 2)];
+            charBuffer = null;
+        }
+        if (charBuffer == null) {
+            charBuffer = CharBuffer.wrap(chars);
+        }
+    }
+
+    /**
+     * copy decoded chars into destination
+     *
+     * @param dest   destination char array, at least length() chars should be available from offset
+     * @param offset the beginning index of destination
+     * @return count of chars copied
+     */
+    public int getChars(char[] dest, int offset) {
+        System.arraycopy(chars, 0, dest, offset, length);
+        return length;
+    }
+
+    /**
+     * append decoded chars to appendable, StringBuilder, StringBuffer and Writer will get chars by array copy
+     *
+     * @param appendable the target
+     * @throws IOException
+     */
+    public void appendTo(Appendable appendable) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(chars, 0, length);
+        } else if (appendable instanceof StringBuffer) {
+            ((StringBuffer) appendable).append(chars, 0, length);
+        } else if (appendable instanceof Writer) {
+            ((Writer) appendable).write(chars, 0, length);
+        } else {
+            appendable.append(this, 0, length);
+        }
+    }
+
+    /**
+     * compare decoded chars with another char sequence
+     *
+     * @param cs another char sequence
+     * @return true if they have the same chars
+     */
+    public boolean contentEquals(CharSequence cs) {
+        if (cs == null || cs.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[i] != cs.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * hash code of decoded chars, the same as String.hashCode() of the same chars
+     *
+     * @return hash code
+     */
+    public int contentHashCode() {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return chars[index];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -13,6 +13,25 @@ public final class FastStringBuilder {
         this.chars = new char[length];
     }
 
+    /**
+     * use the char array as holder, chars will be appended from the beginning of it
+     *
+     * @param chars char array holder
+     */
+    public FastStringBuilder(char[] chars) {
+        this.chars = chars;
+    }
+
+    /**
+     * clear the builder, and use another char array as holder
+     *
+     * @param chars char array holder
+     */
+    public void reset(char[] chars) {
+        this.chars = chars;
+        this.last = 0;
+    }
+
     public void append(byte b) {
         chars[last] = (char) b;
         last++;
@@ -17,6 +17,7 @@ package com.github.fastxml.util;
 
 import com.github.fastxml.exception.NumberFormatException;
 import com.github.fastxml.exception.ParseException;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 
 /**
@@ -25,6 +26,17 @@ import java.nio.charset.Charset;
  */
 public class ParseUtils {
 
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+    private final static Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+    private final static Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private final static int SINGLE_PASS_NONE = 0;
+    private final static int SINGLE_PASS_UTF_8 = 1;
+    private final static int SINGLE_PASS_ISO_8859_1 = 2;
+    private final static int SINGLE_PASS_US_ASCII = 3;
+
+    private final static char REPLACEMENT_CHAR = '\uFFFD';
+
     /**
      * parse bytes to string with specific encoding charset, remove "<![CDATA[" and "]]>" and replace entity reference if necessary
      *
@@ -148,13 +160,212 @@ public class ParseUtils {
     }
 
 
+    /**
+     * parse bytes to string with specific encoding charset, remove "<![CDATA[" and "]]>" and replace entity reference if necessary.
+     * UTF-8, ISO-8859-1 and US-ASCII are decoded in one pass, other charsets are decoded by CharsetDecoder at first.
+     *
+     * @param bytes   the byte array
+     * @param begin   the beginning index, inclusive.
+     * @param length  the length of bytes need to be parsed
+     * @param charset charset of bytes
+     * @return string parse from bytes. if the length of string is 0, then return null
+     */
     public final static String parseStringWithDecoding(final byte[] bytes, final int begin, final int length, final Charset charset) throws ParseException {
-        final String strNeedDecoding = new String(bytes, begin, length, charset);
-        final char[] chars = strNeedDecoding.toCharArray();
-        final int last = chars.length;
-        final FastStringBuilder sb = new FastStringBuilder(length);
+        final FastStringBuilder sb;
+        if (isSinglePassCharset(charset)) {
+            sb = new FastStringBuilder(length);
+            parseCharsWithDecoding(bytes, begin, length, charset, sb);
+        } else {
+            final String strNeedDecoding = new String(bytes, begin, length, charset);
+            final char[] chars = strNeedDecoding.toCharArray();
+            sb = new FastStringBuilder(chars);
+            parseCDATAAndEntityReference(chars, chars.length, sb);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    /**
+     * check whether bytes in this charset can be decoded by parseCharsWithDecoding()
+     *
+     * @param charset charset of bytes
+     * @return true if charset is UTF-8, ISO-8859-1 or US-ASCII
+     */
+    public final static boolean isSinglePassCharset(final Charset charset) {
+        return singlePassCharset(charset) != SINGLE_PASS_NONE;
+    }
+
+    /**
+     * ASCII bytes which are a part of other chars in stateful or 7-bit charsets, such as ISO-2022-JP, HZ and UTF-7
+     */
+    private final static String[] ASCII_PROBES = {"\u001b$BF|K\\\u001b(B", "~{VP~}", "+ZeVnLA-"};
+
+    /**
+     * check whether bytes less than 0x80 are always decoded into the same ASCII chars in this charset,
+     * so that a token which contains only such bytes need not to be decoded.
+     * It's false for charsets such as UTF-16, UTF-7, HZ and ISO-2022-JP, in which ASCII bytes may be a part of other chars.
+     *
+     * @param charset charset of bytes
+     * @return true if charset is compatible with ASCII
+     */
+    public final static boolean isAsciiCompatible(final Charset charset) {
+        if (isSinglePassCharset(charset)) {
+            return true;
+        }
+        final byte[] bytes = new byte[128];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        if (!isDecodedAsAscii(bytes, charset)) {
+            return false;
+        }
+        for (String probe : ASCII_PROBES) {
+            if (!isDecodedAsAscii(probe.getBytes(US_ASCII), charset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final static boolean isDecodedAsAscii(final byte[] bytes, final Charset charset) {
+        final String decoded = new String(bytes, charset);
+        if (decoded.length() != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (decoded.charAt(i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final static int singlePassCharset(final Charset charset) {
+        if (charset == UTF_8 || UTF_8.equals(charset)) {
+            return SINGLE_PASS_UTF_8;
+        } else if (charset == ISO_8859_1 || ISO_8859_1.equals(charset)) {
+            return SINGLE_PASS_ISO_8859_1;
+        } else if (charset == US_ASCII || US_ASCII.equals(charset)) {
+            return SINGLE_PASS_US_ASCII;
+        }
+        return SINGLE_PASS_NONE;
+    }
+
+    /**
+     * decode bytes, remove "<![CDATA[" and "]]>" and replace entity reference in one pass, and append chars to sb.
+     * Only UTF-8, ISO-8859-1 and US-ASCII are supported, see isSinglePassCharset().
+     * Malformed bytes are replaced by '\uFFFD' just like new String(bytes, charset) does.
+     * The count of chars appended is never more than the length of bytes, so sb should have that many chars free.
+     *
+     * @param bytes   the byte array
+     * @param begin   the beginning index, inclusive.
+     * @param length  the length of bytes need to be parsed
+     * @param charset charset of bytes
+     * @param sb      string builder to append chars
+     * @throws ParseException
+     * @throws IllegalArgumentException if charset is not supported
+     */
+    public final static void parseCharsWithDecoding(final byte[] bytes, int begin, final int length, final Charset charset,
+                                                    final FastStringBuilder sb) throws ParseException {
+        final int mode = singlePassCharset(charset);
+        if (mode == SINGLE_PASS_NONE) {
+            throw new IllegalArgumentException("charset can not be decoded in one pass: " + charset);
+        }
+        final int last = begin + length;
+        boolean inCDATA = false;
+        while (begin < last) {
+            final byte b = bytes[begin];
+            if (b >= 0) { // ASCII
+                if (b == '<' && !inCDATA && begin + 8 < last && bytes[begin + 1] == '!' && bytes[begin + 2] == '['
+                        && bytes[begin + 3] == 'C' && bytes[begin + 4] == 'D' && bytes[begin + 5] == 'A'
+                        && bytes[begin + 6] == 'T' && bytes[begin + 7] == 'A' && bytes[begin + 8] == '[') { // found CDATA block
+                    inCDATA = true;
+                    begin += 9;
+                } else if (b == ']' && inCDATA && begin + 2 < last && bytes[begin + 1] == ']' && bytes[begin + 2] == '>') {
+                    inCDATA = false;
+                    begin += 3;
+                } else if (b == '&' && !inCDATA) { // found entity reference
+                    begin = parseEntityReference4Byte(bytes, begin + 1, last, sb) + 1;
+                } else {
+                    sb.append((char) b);
+                    begin++;
+                }
+            } else if (mode == SINGLE_PASS_UTF_8) {
+                begin = decodeUTF8(bytes, begin, last, sb);
+            } else if (mode == SINGLE_PASS_ISO_8859_1) {
+                sb.append((char) (b & 0xFF));
+                begin++;
+            } else {
+                sb.append(REPLACEMENT_CHAR);
+                begin++;
+            }
+        }
+        if (inCDATA) {
+            throw ParseException.formatError("CDATA is not closed");
+        }
+    }
+
+    /**
+     * decode a multi-byte UTF-8 sequence beginning with a non-ASCII byte. For malformed sequence, the maximal
+     * malformed prefix is replaced by one '\uFFFD', which is the same as CharsetDecoder.
+     *
+     * @return the index after the decoded sequence
+     */
+    private final static int decodeUTF8(final byte[] bytes, final int begin, final int last, final FastStringBuilder sb) {
+        final int b1 = bytes[begin] & 0xFF;
+        if (b1 >= 0xC2 && b1 <= 0xDF) { // 2 bytes
+            if (begin + 1 < last && isContinuation(bytes[begin + 1], 0x80, 0xBF)) {
+                sb.append((char) (((b1 & 0x1F) << 6) | (bytes[begin + 1] & 0x3F)));
+                return begin + 2;
+            }
+        } else if (b1 >= 0xE0 && b1 <= 0xEF) { // 3 bytes, without overlong and surrogate code points
+            if (begin + 1 < last && isContinuation(bytes[begin + 1], b1 == 0xE0 ? 0xA0 : 0x80, 0xBF)) {
+                if (begin + 2 < last && isContinuation(bytes[begin + 2], 0x80, 0xBF)) {
+                    final char c = (char) (((b1 & 0x0F) << 12) | ((bytes[begin + 1] & 0x3F) << 6) | (bytes[begin + 2] & 0x3F));
+                    sb.append(c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE ? REPLACEMENT_CHAR : c);
+                    return begin + 3;
+                }
+                sb.append(REPLACEMENT_CHAR);
+                return begin + 2;
+            }
+        } else if (b1 >= 0xF0 && b1 <= 0xF4) { // 4 bytes, without overlong and code points above U+10FFFF
+            if (begin + 1 < last && isContinuation(bytes[begin + 1], b1 == 0xF0 ? 0x90 : 0x80, b1 == 0xF4 ? 0x8F : 0xBF)) {
+                if (begin + 2 < last && isContinuation(bytes[begin + 2], 0x80, 0xBF)) {
+                    if (begin + 3 < last && isContinuation(bytes[begin + 3], 0x80, 0xBF)) {
+                        final int codePoint = ((b1 & 0x07) << 18) | ((bytes[begin + 1] & 0x3F) << 12)
+                                | ((bytes[begin + 2] & 0x3F) << 6) | (bytes[begin + 3] & 0x3F);
+                        sb.append((char) ((codePoint >>> 10) + (Character.MIN_HIGH_SURROGATE - (Character.MIN_SUPPLEMENTARY_CODE_POINT >>> 10))));
+                        sb.append((char) ((codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE));
+                        return begin + 4;
+                    }
+                    sb.append(REPLACEMENT_CHAR);
+                    return begin + 3;
+                }
+                sb.append(REPLACEMENT_CHAR);
+                return begin + 2;
+            }
+        }
+        sb.append(REPLACEMENT_CHAR);
+        return begin + 1;
+    }
+
+    private final static boolean isContinuation(final byte b, final int min, final int max) {
+        final int i = b & 0xFF;
+        return i >= min && i <= max;
+    }
+
+    /**
+     * remove "<![CDATA[" and "]]>" and replace entity reference in decoded chars, and append the result to sb.
+     * sb may be backed by the same char array, because the result is never longer than the decoded chars.
+     *
+     * @param chars  decoded chars
+     * @param length count of decoded chars
+     * @param sb     string builder to append the result
+     * @throws ParseException
+     */
+    public final static void parseCDATAAndEntityReference(final char[] chars, final int length, final FastStringBuilder sb) throws ParseException {
+        final int last = length;
         for (int i = 0; i < last; i++) { // found CDATA block
-            if (chars[i] == '<' && chars[i + 1] == '!' && chars[i + 2] == '['
+            if (chars[i] == '<' && i + 8 < last && chars[i + 1] == '!' && chars[i + 2] == '['
                     && chars[i + 3] == 'C' && chars[i + 4] == 'D' && chars[i + 5] == 'A'
                     && chars[i + 6] == 'T' && chars[i + 7] == 'A' && chars[i + 8] == '[') {
                 i += 9;
@@ -165,12 +376,11 @@ public class ParseUtils {
                 sb.append(chars[i]);
             }
         }
-        return sb.length() == 0 ? null : sb.toString();
     }
 
     private final static int parseCDATA4String(final char[] chars, int begin, final int last, final FastStringBuilder sb) throws ParseException {
         for (; begin < last; begin++) {
-            if (chars[begin] == ']' && chars[begin + 1] == ']' && chars[begin + 2] == '>') {
+            if (chars[begin] == ']' && begin + 2 < last && chars[begin + 1] == ']' && chars[begin + 2] == '>') {
                 begin += 2;
                 return begin;
             } else {
@@ -266,7 +476,82 @@ public class ParseUtils {
 
 
     /**
-     * parse bytes to integer
+     * parse bytes to boolean as xml schema: "true" or "1" is true, "false" or "0" is false,
+     * whitespace around the value is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return boolean value parsed from bytes
+     * @throws NumberFormatException if bytes are not a boolean value
+     */
+    public final static boolean parseBoolean(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        switch (last - i) {
+            case 1:
+                if (bytes[i] == '1') {
+                    return true;
+                } else if (bytes[i] == '0') {
+                    return false;
+                }
+                break;
+            case 4:
+                if (bytes[i] == 't' && bytes[i + 1] == 'r' && bytes[i + 2] == 'u' && bytes[i + 3] == 'e') {
+                    return true;
+                }
+                break;
+            case 5:
+                if (bytes[i] == 'f' && bytes[i + 1] == 'a' && bytes[i + 2] == 'l' && bytes[i + 3] == 's' && bytes[i + 4] == 'e') {
+                    return false;
+                }
+                break;
+        }
+        throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+    }
+
+    /**
+     * parse bytes to byte, whitespace around the number is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed, if length == 0, a NumberFormatException will thrown
+     * @return byte number parsed from bytes
+     * @throws NumberFormatException if bytes are not a number or out of the range of byte
+     */
+    public final static byte parseByte(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        final int result = parseInt(bytes, begin, length);
+        if (result < Byte.MIN_VALUE || result > Byte.MAX_VALUE) {
+            throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+        }
+        return (byte) result;
+    }
+
+    /**
+     * parse bytes to short, whitespace around the number is ignored
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed, if length == 0, a NumberFormatException will thrown
+     * @return short number parsed from bytes
+     * @throws NumberFormatException if bytes are not a number or out of the range of short
+     */
+    public final static short parseShort(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        final int result = parseInt(bytes, begin, length);
+        if (result < Short.MIN_VALUE || result > Short.MAX_VALUE) {
+            throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+        }
+        return (short) result;
+    }
+
+    /**
+     * parse bytes to integer, whitespace around the number is ignored
      *
      * @param bytes  the byte array
      * @param begin  the beginning index, inclusive.
@@ -274,53 +559,64 @@ public class ParseUtils {
      * @return integer number parsed from bytes
      * @throws NumberFormatException
      */
-    public final static int parseInt(final byte[] bytes, int begin, final int length) throws NumberFormatException {
-        int result = 0;
+    public final static int parseInt(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        if (i == last) {
+            throw NumberFormatException.formatException("can't convert null to integer", null);
+        }
         boolean negative = false;
-        int i = 0;
-        int limit = -Integer.MAX_VALUE;
-        int radix = 10;
-        int multmin;
-        int digit;
-
-        if (length > 0) {
-            char firstChar = (char) bytes[begin];
-            if (firstChar < '0') { // Possible leading "+" or "-"
-                if (firstChar == '-') {
-                    negative = true;
-                    limit = Integer.MIN_VALUE;
-                } else if (firstChar != '+')
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
-
-                if (length == 1) // Cannot have lone "+" or "-"
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
-                i++;
+        if (bytes[i] == '-' || bytes[i] == '+') { // leading "+" or "-"
+            negative = bytes[i] == '-';
+            if (++i == last) { // Cannot have lone "+" or "-"
+                throw NumberFormatException.formatException(toString(bytes, begin, length), null);
             }
-            multmin = limit / radix;
-            while (i < length) {
-                // Accumulating negatively avoids surprises near MAX_VALUE
-                digit = Character.digit((char) bytes[i + begin], radix);
+        }
+        if (last - i > 9) { // may overflow, skip leading zeros at first
+            while (bytes[i] == '0' && last - i > 1) {
                 i++;
-                if (digit < 0) {
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
-                }
-                if (result < multmin) {
+            }
+        }
+
+        final int digits = last - i;
+        if (digits <= 9) { // no overflow
+            int result = 0;
+            for (; i < last; i++) {
+                final int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9) {
                     throw NumberFormatException.formatException(toString(bytes, begin, length), null);
                 }
-                result *= radix;
-                if (result < limit + digit) {
+                result = result * 10 + digit;
+            }
+            return negative ? -result : result;
+        }
+        if (digits == 10) {
+            long result = 0;
+            for (; i < last; i++) {
+                final int digit = bytes[i] - '0';
+                if (digit < 0 || digit > 9) {
                     throw NumberFormatException.formatException(toString(bytes, begin, length), null);
                 }
-                result -= digit;
+                result = result * 10 + digit;
+            }
+            if (negative) {
+                result = -result;
+            }
+            if (result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+                return (int) result;
             }
-        } else {
-            throw NumberFormatException.formatException("can't convert null to integer", null);
         }
-        return negative ? result : -result;
+        throw NumberFormatException.formatException(toString(bytes, begin, length), null);
     }
 
     /**
-     * parse bytes to long
+     * parse bytes to long, whitespace around the number is ignored
      *
      * @param bytes  the byte array
      * @param begin  the beginning index, inclusive.
@@ -328,53 +624,166 @@ public class ParseUtils {
      * @return long number parsed from bytes
      * @throws NumberFormatException
      */
-    public final static long parseLong(final byte[] bytes, int begin, final int length) throws NumberFormatException {
-        long result = 0;
+    public final static long parseLong(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        if (i == last) {
+            throw NumberFormatException.formatException("can't convert null to long", null);
+        }
         boolean negative = false;
-        int i = 0;
-        long limit = -Long.MAX_VALUE;
-        int radix = 10;
-        long multmin;
-        int digit;
+        if (bytes[i] == '-' || bytes[i] == '+') { // leading "+" or "-"
+            negative = bytes[i] == '-';
+            if (++i == last) { // Cannot have lone "+" or "-"
+                throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+            }
+        }
+        if (last - i > 18) { // may overflow, skip leading zeros at first
+            while (bytes[i] == '0' && last - i > 1) {
+                i++;
+            }
+        }
 
-        if (length > 0) {
-            char firstChar = (char) bytes[begin];
-            if (firstChar < '0') { // Possible leading "+" or "-"
-                if (firstChar == '-') {
-                    negative = true;
-                    limit = Long.MIN_VALUE;
-                } else if (firstChar != '+')
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+        final int digits = last - i;
+        if (digits > 19) {
+            throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+        }
+        // at most 18 digits without overflow, 8 digits at a time
+        final int fastLast = digits == 19 ? last - 1 : last;
+        long result = 0;
+        for (; fastLast - i >= 8; i += 8) {
+            final long word = ByteUtils.readLong(bytes, i);
+            if (!ByteUtils.isEightDigits(word)) {
+                throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+            }
+            result = result * 100000000 + ByteUtils.eightDigitsToInt(word);
+        }
+        for (; i < fastLast; i++) {
+            final int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+            }
+            result = result * 10 + digit;
+        }
+        if (digits == 19) { // the last digit may overflow
+            final int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || result > Long.MAX_VALUE / 10
+                    || (result == Long.MAX_VALUE / 10 && digit > (negative ? 8 : 7))) {
+                throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+            }
+            result = result * 10 + digit; // Long.MIN_VALUE if it is -9223372036854775808
+        }
+        return negative ? -result : result;
+    }
 
-                if (length == 1) // Cannot have lone "+" or "-"
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
-                i++;
+    /**
+     * parse bytes to BigDecimal, whitespace around the number is ignored.
+     * BigDecimal is created from unscaled long and scale directly if there are no more than 18 digits,
+     * otherwise it's created from String.
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return BigDecimal parsed from bytes, which equals to new BigDecimal(String)
+     * @throws NumberFormatException
+     */
+    public final static BigDecimal parseBigDecimal(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        int i = begin;
+        int last = begin + length;
+        while (i < last && ByteUtils.isWhiteSpaceOrNewLine(bytes[i])) {
+            i++;
+        }
+        while (last > i && ByteUtils.isWhiteSpaceOrNewLine(bytes[last - 1])) {
+            last--;
+        }
+        final int numberBegin = i;
+        boolean negative = false;
+        if (i < last && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int scale = 0;
+        int digits = 0;
+        int digit;
+        for (; i < last && (digit = bytes[i] - '0') >= 0 && digit <= 9; i++) { // integer part
+            unscaled = unscaled * 10 + digit;
+            digits++;
+        }
+        if (i < last && bytes[i] == '.') { // fraction part
+            i++;
+            for (; i < last && (digit = bytes[i] - '0') >= 0 && digit <= 9; i++) {
+                unscaled = unscaled * 10 + digit;
+                digits++;
+                scale++;
             }
-            multmin = limit / radix;
-            while (i < length) {
-                // Accumulating negatively avoids surprises near MAX_VALUE
-                digit = Character.digit((char) bytes[i + begin], radix);
+        }
+        if (digits > 0 && digits <= 18) {
+            if (i < last && (bytes[i] == 'e' || bytes[i] == 'E')) { // exponent part
                 i++;
-                if (digit < 0) {
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+                boolean negativeExponent = false;
+                if (i < last && (bytes[i] == '-' || bytes[i] == '+')) {
+                    negativeExponent = bytes[i] == '-';
+                    i++;
                 }
-                if (result < multmin) {
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+                final int exponentBegin = i;
+                int exponent = 0;
+                for (; i < last && (digit = bytes[i] - '0') >= 0 && digit <= 9; i++) {
+                    exponent = exponent * 10 + digit;
                 }
-                result *= radix;
-                if (result < limit + digit) {
-                    throw NumberFormatException.formatException(toString(bytes, begin, length), null);
+                if (i > exponentBegin && i - exponentBegin <= 9) {
+                    scale += negativeExponent ? exponent : -exponent;
+                } else {
+                    i = -1; // let BigDecimal decide
                 }
-                result -= digit;
             }
-        } else {
-            throw NumberFormatException.formatException("can't convert null to long", null);
+            if (i == last) {
+                return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+            }
+        }
+        try {
+            return new BigDecimal(toString(bytes, numberBegin, last - numberBegin));
+        } catch (Exception e) {
+            throw NumberFormatException.formatException(toString(bytes, begin, length), e);
         }
-        return negative ? result : -result;
     }
 
     /**
-     * parse bytes to float
+     * parse ISO-8601 date such as "2016-12-29" to the count of days from 1970-01-01,
+     * which can be converted to java.time.LocalDate by LocalDate.ofEpochDay(). Whitespace around the date is ignored.
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return epoch day
+     * @throws NumberFormatException
+     */
+    public final static long parseEpochDay(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        return DateParser.parseEpochDay(bytes, begin, length);
+    }
+
+    /**
+     * parse ISO-8601 date-time such as "2016-12-29T08:30:00.123+08:00" to milliseconds from 1970-01-01T00:00:00Z.
+     * Time and zone offset are optional, the time is midnight if it's absent, and the zone is UTC if offset is absent.
+     * Whitespace around the date-time is ignored.
+     *
+     * @param bytes  the byte array
+     * @param begin  the beginning index, inclusive.
+     * @param length the length of bytes need to be parsed
+     * @return epoch milliseconds
+     * @throws NumberFormatException
+     */
+    public final static long parseEpochMillis(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
+        return DateParser.parseEpochMillis(bytes, begin, length);
+    }
+
+    /**
+     * parse bytes to float without creating String, whitespace around the number is ignored
      *
      * @param bytes  the byte array
      * @param begin  the beginning index, inclusive.
@@ -383,15 +792,11 @@ public class ParseUtils {
      * @throws NumberFormatException
      */
     public final static float parseFloat(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
-        try {
-            return Float.parseFloat(parseString(bytes, begin, length));
-        } catch (Exception e) {
-            throw NumberFormatException.formatException(e.getMessage(), e);
-        }
+        return DecimalParser.parseFloat(bytes, begin, length);
     }
 
     /**
-     * parse bytes to double
+     * parse bytes to double without creating String, whitespace around the number is ignored
      *
      * @param bytes  the byte array
      * @param begin  the beginning index, inclusive.
@@ -400,11 +805,7 @@ public class ParseUtils {
      * @throws NumberFormatException
      */
     public final static double parseDouble(final byte[] bytes, final int begin, final int length) throws NumberFormatException {
-        try {
-            return Double.parseDouble(parseString(bytes, begin, length));
-        } catch (Exception e) {
-            throw NumberFormatException.formatException(e.getMessage(), e);
-        }
+        return DecimalParser.parseDouble(bytes, begin, length);
     }
 
     /**
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.BatchReport;
+import com.github.fastxml.DocumentHandler;
+import com.github.fastxml.FastXmlBatch;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by weager on 2017/01/07.
+ */
+public class FastXmlBatchTest {
+    private final static String[] FILE_NAMES = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+            "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+
+    private static long countEvents(FastXmlParser parser) throws ParseException {
+        long count = 0;
+        while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * documents of all types of source should be parsed the same as one by one
+     */
+    @Test
+    public void testRun() throws Exception {
+        List<Object> sources = new ArrayList<Object>();
+        List<Long> expected = new ArrayList<Long>();
+        long bytes = 0;
+        for (int i = 0; i < 5; i++) {
+            for (String fileName : FILE_NAMES) {
+                byte[] docBytes = FileLoaderUtils.loadClasspathFile(fileName);
+                long count = countEvents(FastXmlFactory.newInstance(docBytes));
+                sources.add(docBytes);
+                sources.add(ByteBuffer.wrap(docBytes));
+                sources.add(FileLoaderUtils.getFile(fileName));
+                sources.add(FileLoaderUtils.getInputStream(fileName));
+                expected.addAll(Collections.nCopies(4, count));
+                bytes += docBytes.length * 4L;
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final long[] counts = new long[sources.size()];
+            FastXmlBatch batch = FastXmlFactory.newBatch(executor, 4);
+            BatchReport report = batch.run(sources, new DocumentHandler() {
+                public void handle(int documentIndex, FastXmlParser parser) throws ParseException {
+                    counts[documentIndex] = countEvents(parser);
+                }
+            });
+            for (int i = 0; i < counts.length; i++) {
+                Assert.assertEquals(String.valueOf(i), expected.get(i).longValue(), counts[i]);
+            }
+            Assert.assertEquals(sources.size(), report.getDocumentCount());
+            Assert.assertEquals(bytes, report.getByteCount());
+            Assert.assertEquals(4, report.getWorkers());
+            Assert.assertTrue(report.getElapsedNanos() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * the first failure stops the batch and is thrown by run()
+     */
+    @Test
+    public void testFailure() throws Exception {
+        List<Object> sources = new ArrayList<Object>();
+        for (int i = 0; i < 100; i++) {
+            sources.add(FileLoaderUtils.loadClasspathFile("order.xml"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            FastXmlBatch batch = new FastXmlBatch(executor, 2);
+            try {
+                batch.run(sources, new DocumentHandler() {
+                    public void handle(int documentIndex, FastXmlParser parser) throws ParseException {
+                        if (documentIndex == 10) {
+                            throw ParseException.formatError("bad document " + documentIndex);
+                        }
+                    }
+                });
+                Assert.fail();
+            } catch (ParseException e) {
+                Assert.assertTrue(e.getMessage().contains("bad document 10"));
+            }
+            try {
+                batch.run(Collections.singletonList("order.xml"), null);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                // expected, String is not a source
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlIndex;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Created by weager on 2017/01/04.
+ */
+public class FastXmlIndexTest {
+
+    /**
+     * records of index should be the same as events of parser
+     */
+    @Test
+    public void testRecords() throws IOException, ParseException {
+        String[] fileNames = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+                "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+        for (String fileName : fileNames) {
+            byte[] bytes = FileLoaderUtils.loadClasspathFile(fileName);
+            FastXmlIndex index = FastXmlIndex.build(bytes);
+            FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+            int record = 0;
+            for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+                if (event == FastXmlParser.START_TAG || event == FastXmlParser.ATTRIBUTE_NAME
+                        || event == FastXmlParser.ATTRIBUTE_VALUE || event == FastXmlParser.TEXT) {
+                    Assert.assertEquals(fileName, event, index.getType(record));
+                    Assert.assertEquals(fileName, parser.getDepth(), index.getDepth(record));
+                    Assert.assertEquals(fileName, parser.getStringWithDecoding(), index.getStringWithDecoding(record));
+                    record++;
+                }
+            }
+            Assert.assertEquals(fileName, record, index.size());
+        }
+    }
+
+    /**
+     * navigate parent, child and sibling by cursor
+     */
+    @Test
+    public void testCursor() throws IOException, ParseException {
+        FastXmlIndex index = FastXmlIndex.build(FileLoaderUtils.loadClasspathFile("book.xml"));
+        FastXmlIndex.Cursor cursor = index.cursor();
+        Assert.assertEquals("Order", cursor.getName());
+        Assert.assertEquals(1, cursor.getDepth());
+        Assert.assertFalse(cursor.toParent());
+        Assert.assertTrue(cursor.toFirstChild());
+        Assert.assertEquals("Customer", cursor.getName());
+        Assert.assertTrue(cursor.toFirstChild("Cardnum".getBytes()));
+        Assert.assertEquals("234 234 234 234", cursor.getText());
+        Assert.assertTrue(cursor.toParent());
+        Assert.assertTrue(cursor.isMatch("Customer".getBytes()));
+
+        int manifestCount = 0;
+        int itemCount = 0;
+        while (cursor.toNextSibling("Manifest".getBytes())) {
+            manifestCount++;
+            int manifest = cursor.getElement();
+            for (boolean found = cursor.toFirstChild(); found; found = cursor.toNextSibling()) {
+                Assert.assertTrue(cursor.isMatch("Item".getBytes()));
+                Assert.assertTrue(cursor.toFirstChild("ID".getBytes()));
+                Assert.assertNotNull(cursor.getText());
+                Assert.assertTrue(cursor.toParent());
+                itemCount++;
+            }
+            cursor.moveTo(manifest);
+        }
+        Assert.assertEquals(25, manifestCount);
+        Assert.assertEquals(125, itemCount);
+        cursor.toParent();
+        Assert.assertEquals("Order", cursor.getName());
+
+        index = FastXmlIndex.build(FileLoaderUtils.loadClasspathFile("test2.xml"));
+        cursor = index.cursor();
+        Assert.assertTrue(cursor.toFirstChild());
+        Assert.assertNull(cursor.getAttribute("age".getBytes())); // empty value
+        Assert.assertNotEquals(FastXmlIndex.NONE, cursor.getAttributeRecord("age".getBytes()));
+        Assert.assertEquals(FastXmlIndex.NONE, cursor.getAttributeRecord("sex".getBytes()));
+        Assert.assertTrue(cursor.toFirstChild("name".getBytes()));
+        Assert.assertEquals("true", cursor.getAttribute("hasEntityReference".getBytes()));
+        Assert.assertEquals("  汤姆克鲁兹-&côté &amp;c&#244;t&#233;  ", cursor.getText());
+        cursor.toParent();
+        Assert.assertTrue(cursor.toNextSibling());
+        Assert.assertEquals("male", cursor.getAttribute("sex".getBytes()));
+        Assert.assertTrue(cursor.toNextSibling());
+        Assert.assertTrue(cursor.toFirstChild("name".getBytes()));
+        Assert.assertNull(cursor.getText());
+        Assert.assertFalse(cursor.toFirstChild());
+    }
+
+    /**
+     * ascii flag of records should not be trusted in stateful charset
+     */
+    @Test
+    public void testStatefulCharset() throws ParseException {
+        if (!Charset.isSupported("ISO-2022-JP")) {
+            return;
+        }
+        Charset charset = Charset.forName("ISO-2022-JP");
+        FastXmlIndex index = FastXmlIndex.build("<a b=\"東京\">日本</a>".getBytes(charset), charset);
+        FastXmlIndex.Cursor cursor = index.cursor();
+        Assert.assertEquals("東京", cursor.getAttribute("b".getBytes()));
+        Assert.assertEquals("日本", cursor.getText());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParallel;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.RecordHandler;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by weager on 2017/01/05.
+ */
+public class FastXmlParallelTest {
+
+    /**
+     * records found in parallel should be the same as sequential parsing,
+     * even if chunks begin in comments, CDATA blocks or nested records
+     */
+    @Test
+    public void testParseRecords() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<orders>\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("  <order id=\"").append(i).append("\">\n");
+            if (i % 3 == 0) {
+                sb.append("    <!-- <order id=\"comment\"> -->\n");
+            }
+            if (i % 5 == 0) {
+                sb.append("    <note><![CDATA[<order id=\"cdata\"><order>]]></note>\n");
+            }
+            if (i % 7 == 0) {
+                sb.append("    <items><order id=\"nested\"><item/></order></items>\n");
+            }
+            sb.append("    <name>汤姆 ").append(i).append("</name>\n");
+            sb.append("  </order>\n");
+            if (i % 100 == 0) {
+                sb.append("  <batch><order id=\"b").append(i).append("\"/></batch>\n");
+            }
+        }
+        sb.append("</orders>\n");
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+
+        // expected records by sequential parsing
+        List<String> expected = new ArrayList<String>();
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG && parser.isMatch("order".getBytes())) {
+                parser.next();
+                parser.next();
+                expected.add(parser.getString());
+                parser.skipCurrentTag(); // nested records are not records
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int chunkSize : new int[]{100, 1000, 4096, 1 << 20}) {
+                final String[] ids = new String[expected.size()];
+                final String[] names = new String[expected.size()];
+                FastXmlParallel parallel = new FastXmlParallel(executor, 16, chunkSize);
+                int count = parallel.parseRecords(bytes, null, "order", new RecordHandler() {
+                    public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                        Assert.assertEquals(FastXmlParser.START_DOCUMENT, parser.next());
+                        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+                        Assert.assertEquals(1, parser.getDepth());
+                        parser.next();
+                        parser.next();
+                        ids[recordIndex] = parser.getString();
+                        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+                            if (event == FastXmlParser.START_TAG && parser.getDepth() == 2 && parser.isMatch("name".getBytes())) {
+                                parser.next();
+                                names[recordIndex] = parser.getStringWithDecoding();
+                            }
+                        }
+                    }
+                });
+                Assert.assertEquals(expected.size(), count);
+                for (int i = 0; i < count; i++) {
+                    Assert.assertEquals(expected.get(i), ids[i]);
+                    if (!ids[i].startsWith("b")) {
+                        Assert.assertEquals("汤姆 " + ids[i], names[i]);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * the first failure is thrown after all tasks finish, handler is not called after parseRecords() throws
+     */
+    @Test
+    public void testFailure() throws Exception {
+        StringBuilder sb = new StringBuilder("<orders>");
+        for (int i = 0; i < 4000; i++) {
+            sb.append("<order id=\"").append(i).append("\"/>");
+        }
+        sb.append("</orders>");
+        byte[] bytes = sb.toString().getBytes();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            FastXmlParallel parallel = new FastXmlParallel(executor, 4, 1024);
+            final AtomicBoolean returned = new AtomicBoolean();
+            final AtomicInteger lateCalls = new AtomicInteger();
+            final AtomicInteger handled = new AtomicInteger();
+            try {
+                parallel.parseRecords(bytes, null, "order", new RecordHandler() {
+                    public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                        if (returned.get()) {
+                            lateCalls.incrementAndGet();
+                        }
+                        handled.incrementAndGet();
+                        if (recordIndex == 5) {
+                            throw ParseException.formatError("bad record " + recordIndex);
+                        }
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            throw ParseException.interrupted(e);
+                        }
+                    }
+                });
+                Assert.fail();
+            } catch (ParseException e) {
+                Assert.assertTrue(e.getMessage().contains("bad record 5"));
+            }
+            returned.set(true);
+            Thread.sleep(100);
+            Assert.assertEquals(0, lateCalls.get());
+            Assert.assertTrue(handled.get() < 4000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
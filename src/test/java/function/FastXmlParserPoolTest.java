@@ -0,0 +1,110 @@
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParserPool;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by weager on 2016/12/24.
+ */
+public class FastXmlParserPoolTest {
+
+    /**
+     * parser and its buffer should be reused after released
+     */
+    @Test
+    public void testReuseParser() throws IOException, ParseException {
+        FastXmlParserPool pool = FastXmlFactory.newPool(2, 64 * 1024);
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("bioinfo.xml");
+
+        FastXmlParser parser = pool.borrow(new ByteArrayInputStream(bytes), null);
+        int count = traverse(parser);
+        byte[] buffer = parser.getDocument();
+        pool.release(parser);
+
+        FastXmlParser reusedParser = pool.borrow(new ByteArrayInputStream(bytes), null);
+        Assert.assertSame(parser, reusedParser);
+        Assert.assertSame(buffer, reusedParser.getDocument());
+        Assert.assertEquals(count, traverse(reusedParser));
+        pool.release(reusedParser);
+
+        FastXmlParser byteArrayParser = pool.borrow(bytes, null);
+        Assert.assertEquals(count, traverse(byteArrayParser));
+        pool.release(byteArrayParser);
+        Assert.assertSame(byteArrayParser, pool.borrow(bytes, null));
+    }
+
+    /**
+     * buffer larger than max retained buffer size should not be kept
+     */
+    @Test
+    public void testMaxRetainedBufferSize() throws ParseException {
+        FastXmlParserPool pool = FastXmlFactory.newPool(2, 1024);
+        StringBuilder sb = new StringBuilder("<a>");
+        for (int i = 0; i < 5000; i++) {
+            sb.append('b');
+        }
+        sb.append("</a>");
+
+        FastXmlParser parser = pool.borrow(new ByteArrayInputStream(sb.toString().getBytes()), null);
+        traverse(parser);
+        byte[] buffer = parser.getDocument();
+        Assert.assertTrue(buffer.length > 5000);
+        pool.release(parser);
+
+        parser = pool.borrow(new ByteArrayInputStream("<a>b</a>".getBytes()), null);
+        Assert.assertNotSame(buffer, parser.getDocument());
+        Assert.assertEquals(4, traverse(parser));
+    }
+
+    /**
+     * parsers borrowed by multiple threads at the same time
+     */
+    @Test
+    public void testMultipleThreads() throws Exception {
+        final FastXmlParserPool pool = FastXmlFactory.newPool();
+        final byte[] bytes = FileLoaderUtils.loadClasspathFile("order.xml");
+        final int expectCount = traverse(FastXmlFactory.newInstance(bytes));
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 200; j++) {
+                            FastXmlParser parser = pool.borrow(new ByteArrayInputStream(bytes), null);
+                            if (traverse(parser) != expectCount) {
+                                errors.incrementAndGet();
+                            }
+                            pool.release(parser);
+                        }
+                    } catch (ParseException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, errors.get());
+    }
+
+    private static int traverse(FastXmlParser parser) throws ParseException {
+        int count = 0;
+        while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            count++;
+        }
+        return count;
+    }
+}
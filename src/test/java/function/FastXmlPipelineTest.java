@@ -0,0 +1,265 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.BufferPolicy;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlPipeline;
+import com.github.fastxml.RecordConsumer;
+import com.github.fastxml.RecordHandler;
+import com.github.fastxml.RecordMapper;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by weager on 2017/01/06.
+ */
+public class FastXmlPipelineTest {
+
+    private static byte[] orders() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<orders>\n");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("  <order id=\"").append(i).append("\">\n");
+            if (i % 3 == 0) {
+                sb.append("    <!-- <order id=\"comment\"> -->\n");
+            }
+            if (i % 5 == 0) {
+                sb.append("    <note><![CDATA[<order id=\"cdata\"></order>]]></note>\n");
+            }
+            if (i % 7 == 0) {
+                sb.append("    <items><order id=\"nested\"><item/></order></items>\n");
+            }
+            sb.append("    <name>汤姆 ").append(i).append("</name>\n");
+            sb.append("  </order>\n");
+            if (i % 100 == 0) {
+                sb.append("  <batch><order id=\"b").append(i).append("\"/></batch>\n");
+            }
+        }
+        sb.append("</orders>\n");
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    /**
+     * id of record, and name if it has one
+     */
+    private static String parseOrder(FastXmlParser parser) throws ParseException {
+        Assert.assertEquals(FastXmlParser.START_DOCUMENT, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(1, parser.getDepth());
+        parser.next();
+        parser.next();
+        String result = parser.getString();
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG && parser.getDepth() == 2 && parser.isMatch("name".getBytes())) {
+                parser.next();
+                result += ":" + parser.getStringWithDecoding();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * results of pipeline should be the same as sequential parsing, records are copied across buffer fills
+     */
+    @Test
+    public void testOrdered() throws Exception {
+        byte[] bytes = orders();
+        List<String> expected = new ArrayList<String>();
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG && parser.getDepth() == 2 && parser.isMatch("order".getBytes())) {
+                parser.next();
+                parser.next();
+                String id = parser.getString();
+                expected.add(id.startsWith("b") ? id : id + ":汤姆 " + id);
+                parser.skipCurrentTag();
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (BufferPolicy policy : new BufferPolicy[]{BufferPolicy.DEFAULT, new BufferPolicy(256, 1.75, 1 << 20, 256)}) {
+                FastXmlPipeline pipeline = new FastXmlPipeline(executor, 4, 8);
+                pipeline.setRecordName("order");
+                pipeline.setRecordDepth(2);
+                pipeline.setOrdered(true);
+                pipeline.setBufferPolicy(policy);
+                final List<String> results = new ArrayList<String>();
+                int count = pipeline.run(new ByteArrayInputStream(bytes), null, new RecordMapper<String>() {
+                    public String map(int recordIndex, FastXmlParser parser) throws ParseException {
+                        return parseOrder(parser);
+                    }
+                }, new RecordConsumer<String>() {
+                    public void accept(int recordIndex, String result) {
+                        Assert.assertEquals(results.size(), recordIndex);
+                        results.add(result);
+                    }
+                });
+                Assert.assertEquals(expected.size(), count);
+                Assert.assertEquals(expected, results);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * records by name only are the outermost elements with the name, records are handled in any order
+     */
+    @Test
+    public void testUnordered() throws Exception {
+        byte[] bytes = orders();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            FastXmlPipeline pipeline = new FastXmlPipeline(executor, 3, 2);
+            pipeline.setRecordName("order");
+            final String[] results = new String[2020];
+            int count = pipeline.run(new ByteArrayInputStream(bytes), null, new RecordHandler() {
+                public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                    results[recordIndex] = parseOrder(parser);
+                }
+            });
+            Assert.assertEquals(2020, count); // 2000 orders and 20 in batches
+            int batches = 0;
+            for (int i = 0; i < count; i++) {
+                if (results[i].startsWith("b")) {
+                    batches++;
+                } else {
+                    Assert.assertTrue(results[i].endsWith(":汤姆 " + results[i].substring(0, results[i].indexOf(':'))));
+                }
+            }
+            Assert.assertEquals(20, batches);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * the first failure of workers is thrown by run()
+     */
+    @Test
+    public void testFailure() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            FastXmlPipeline pipeline = new FastXmlPipeline(executor, 2, 2);
+            pipeline.setRecordDepth(2);
+            final AtomicInteger handled = new AtomicInteger();
+            try {
+                pipeline.run(new ByteArrayInputStream(orders()), null, new RecordHandler() {
+                    public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                        handled.incrementAndGet();
+                        if (recordIndex == 10) {
+                            throw ParseException.formatError("bad record " + recordIndex);
+                        }
+                    }
+                });
+                Assert.fail();
+            } catch (ParseException e) {
+                Assert.assertTrue(e.getMessage().contains("bad record 10"));
+            }
+            Assert.assertTrue(handled.get() < 2020);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * failure of reader is thrown after all workers finish, mapper and consumer are not called after run() returns
+     */
+    @Test
+    public void testReaderFailure() throws Exception {
+        String document = new String(orders(), "UTF-8");
+        byte[] bytes = document.substring(0, document.indexOf("<order id=\"50\">") + 20).getBytes("UTF-8");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            FastXmlPipeline pipeline = new FastXmlPipeline(executor, 2, 8);
+            pipeline.setRecordName("order");
+            pipeline.setOrdered(true);
+            final AtomicBoolean returned = new AtomicBoolean();
+            final AtomicInteger lateCalls = new AtomicInteger();
+            final AtomicInteger accepted = new AtomicInteger();
+            try {
+                pipeline.run(new ByteArrayInputStream(bytes), null, new RecordMapper<String>() {
+                    public String map(int recordIndex, FastXmlParser parser) throws ParseException {
+                        if (returned.get()) {
+                            lateCalls.incrementAndGet();
+                        }
+                        return parseOrder(parser);
+                    }
+                }, new RecordConsumer<String>() {
+                    public void accept(int recordIndex, String result) throws ParseException {
+                        if (returned.get()) {
+                            lateCalls.incrementAndGet();
+                        }
+                        accepted.incrementAndGet();
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException e) {
+                            throw ParseException.interrupted(e);
+                        }
+                    }
+                });
+                Assert.fail();
+            } catch (ParseException e) {
+                // expected, the stream ends inside a record
+            }
+            returned.set(true);
+            Thread.sleep(100);
+            Assert.assertEquals(0, lateCalls.get());
+            Assert.assertTrue(accepted.get() < 60);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * executor running workers in the caller thread is rejected instead of blocking forever
+     */
+    @Test(timeout = 10000)
+    public void testCallerRunsExecutor() throws Exception {
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            FastXmlPipeline pipeline = new FastXmlPipeline(executor, 2, 2);
+            pipeline.setRecordName("order");
+            try {
+                pipeline.run(new ByteArrayInputStream(orders()), null, new RecordHandler() {
+                    public void handle(int recordIndex, FastXmlParser parser) throws ParseException {
+                        parseOrder(parser);
+                    }
+                });
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.BufferPolicy;
+import com.github.fastxml.EventBatch;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlFlow;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlPublisher;
+import com.github.fastxml.SubtreeBatch;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by weager on 2017/01/09.
+ */
+public class FastXmlPublisherTest {
+    private final static Executor CALLER_RUNS = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    /**
+     * subscriber which requests one item at a time, and records the signals
+     */
+    private static class Recorder<T> implements FastXmlFlow.Subscriber<T> {
+        final List<T> items = new ArrayList<T>();
+        final CountDownLatch finished = new CountDownLatch(1);
+        FastXmlFlow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+        boolean requestNext = true;
+
+        public void onSubscribe(FastXmlFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(T item) {
+            items.add(item);
+            if (requestNext) {
+                subscription.request(1);
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+    }
+
+    /**
+     * stream which counts bytes read from it
+     */
+    private static class CountingStream extends ByteArrayInputStream {
+        int read;
+
+        CountingStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            read += Math.max(n, 0);
+            return n;
+        }
+    }
+
+    /**
+     * events in batches should be the same as parsing one by one
+     */
+    @Test
+    public void testEvents() throws Exception {
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("bioinfo.xml");
+        List<String> expected = new ArrayList<String>();
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+        int event;
+        while ((event = parser.next()) != FastXmlParser.END_DOCUMENT) {
+            if (event != FastXmlParser.START_DOCUMENT) {
+                String value = event == FastXmlParser.ATTRIBUTE_VALUE || event == FastXmlParser.TEXT
+                        ? parser.getStringWithDecoding() : parser.getName();
+                expected.add(event + ":" + parser.getDepth() + ":" + value);
+            }
+        }
+
+        Recorder<EventBatch> recorder = new Recorder<EventBatch>();
+        FastXmlPublisher.events(new ByteArrayInputStream(bytes), null, CALLER_RUNS, 100).subscribe(recorder);
+        recorder.subscription.request(1);
+        Assert.assertTrue(recorder.completed);
+        List<String> events = new ArrayList<String>();
+        for (EventBatch batch : recorder.items) {
+            Assert.assertTrue(batch.size() > 0 && batch.size() <= 100);
+            for (int i = 0; i < batch.size(); i++) {
+                events.add(batch.getEvent(i) + ":" + batch.getDepth(i) + ":" + batch.getValue(i));
+            }
+        }
+        Assert.assertEquals(expected, events);
+    }
+
+    /**
+     * stream is not read when there is no demand
+     */
+    @Test
+    public void testBackpressure() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><orders>");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<order id=\"").append(i).append("\"><name>汤姆</name></order>");
+        }
+        sb.append("</orders>");
+        CountingStream is = new CountingStream(sb.toString().getBytes("UTF-8"));
+        Recorder<EventBatch> recorder = new Recorder<EventBatch>();
+        recorder.requestNext = false;
+        FastXmlPublisher<EventBatch> publisher = FastXmlPublisher.events(is, null, CALLER_RUNS, 16);
+        publisher.setBufferPolicy(new BufferPolicy(1024, 1.75, 1024, 1024));
+        publisher.subscribe(recorder);
+        Assert.assertEquals(0, is.read);
+        recorder.subscription.request(2);
+        Assert.assertEquals(2, recorder.items.size());
+        Assert.assertTrue(is.read <= 1024);
+        recorder.subscription.request(Long.MAX_VALUE);
+        Assert.assertTrue(recorder.completed);
+        int count = 0;
+        for (EventBatch batch : recorder.items) {
+            count += batch.size();
+        }
+        Assert.assertEquals(2 + 10000 * 7, count);
+
+        // the stream can be subscribed only once
+        Recorder<EventBatch> another = new Recorder<EventBatch>();
+        publisher.subscribe(another);
+        Assert.assertTrue(another.error instanceof IllegalStateException);
+    }
+
+    /**
+     * matched elements are published by another thread, and cancel stops publishing
+     */
+    @Test
+    public void testSubtrees() throws Exception {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><orders>");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("<order id=\"").append(i).append("\"><items><order id=\"nested\"/></items></order>");
+        }
+        sb.append("</orders>");
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Recorder<SubtreeBatch> recorder = new Recorder<SubtreeBatch>();
+            FastXmlPublisher.subtrees(new ByteArrayInputStream(bytes), null, executor, "order", 0, 64).subscribe(recorder);
+            recorder.subscription.request(1);
+            Assert.assertTrue(recorder.finished.await(10, TimeUnit.SECONDS));
+            Assert.assertNull(recorder.error);
+            int index = 0;
+            for (SubtreeBatch batch : recorder.items) {
+                Assert.assertEquals(index, batch.getFirstIndex());
+                for (int i = 0; i < batch.size(); i++, index++) {
+                    FastXmlParser parser = batch.newParser(i);
+                    parser.next();
+                    Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+                    parser.next();
+                    parser.next();
+                    Assert.assertEquals(String.valueOf(index), parser.getString());
+                }
+            }
+            Assert.assertEquals(1000, index);
+
+            final CountDownLatch cancelled = new CountDownLatch(1);
+            Recorder<SubtreeBatch> canceller = new Recorder<SubtreeBatch>() {
+                @Override
+                public void onNext(SubtreeBatch item) {
+                    items.add(item);
+                    subscription.cancel();
+                    subscription.request(1);
+                    cancelled.countDown();
+                }
+            };
+            FastXmlPublisher.subtrees(new ByteArrayInputStream(bytes), null, executor, null, 2, 10).subscribe(canceller);
+            canceller.subscription.request(5);
+            Assert.assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+            executor.submit(new Runnable() {
+                public void run() {
+                }
+            }).get();
+            Assert.assertEquals(1, canceller.items.size());
+            Assert.assertFalse(canceller.completed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.AbstractFastXmlParser;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.NameSet;
+import com.github.fastxml.NameTable;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by weager on 2017/01/01.
+ */
+public class NameTableTest {
+
+    /**
+     * names should be the same as getString(), and the same name should get the same String and id
+     */
+    @Test
+    public void testGetName() throws IOException, ParseException {
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("soap.xml");
+        FastXmlParser parser = FastXmlFactory.newInstance(new ByteArrayInputStream(bytes), 1024, null);
+        Map<String, String> names = new HashMap<String, String>();
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        int count = 0;
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG || event == FastXmlParser.END_TAG || event == FastXmlParser.ATTRIBUTE_NAME) {
+                String name = parser.getName();
+                Assert.assertEquals(parser.getString(), name);
+                if (names.containsKey(name)) {
+                    Assert.assertSame(names.get(name), name);
+                    Assert.assertEquals(ids.get(name).intValue(), parser.getNameId());
+                } else {
+                    names.put(name, name);
+                    ids.put(name, parser.getNameId());
+                }
+                count++;
+            }
+        }
+        Assert.assertTrue(count > names.size());
+        Assert.assertEquals(names.size(), ((AbstractFastXmlParser) parser).getNameTable().size());
+    }
+
+    /**
+     * names added before parsing have known ids, and full table should not add names any more
+     */
+    @Test
+    public void testAddAndMaxSize() throws ParseException {
+        NameTable table = new NameTable(false, 3);
+        int bookId = table.add("book");
+        int priceId = table.add("price");
+        Assert.assertEquals(0, bookId);
+        Assert.assertEquals(1, priceId);
+        Assert.assertEquals(bookId, table.add("book"));
+
+        FastXmlParser parser = FastXmlFactory.newInstance("<book><price>1</price><title>a</title><author/></book>".getBytes());
+        ((AbstractFastXmlParser) parser).setNameTable(table);
+        StringBuilder sb = new StringBuilder();
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG) {
+                int id = parser.getNameId();
+                if (id == bookId) {
+                    sb.append("b");
+                } else if (id == priceId) {
+                    sb.append("p");
+                } else if (id == NameTable.NO_ID) {
+                    Assert.assertEquals("author", parser.getName());
+                    sb.append("-");
+                } else {
+                    Assert.assertEquals("title", table.getName(id));
+                    sb.append("t");
+                }
+            }
+        }
+        Assert.assertEquals("bpt-", sb.toString());
+        Assert.assertEquals(3, table.size());
+    }
+
+    /**
+     * parsers in different threads should get the same canonical names from shared table
+     */
+    @Test
+    public void testSharedTable() throws Exception {
+        final NameTable table = NameTable.newSharedTable();
+        final byte[] bytes = FileLoaderUtils.loadClasspathFile("bioinfo.xml");
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 20; j++) {
+                            FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+                            ((AbstractFastXmlParser) parser).setNameTable(table);
+                            for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+                                if (event == FastXmlParser.START_TAG) {
+                                    String name = parser.getName();
+                                    Assert.assertSame(table.getName(parser.getNameId()), name);
+                                    Assert.assertEquals(parser.getString(), name);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertNull(error.get());
+        Assert.assertTrue(table.size() > 0);
+    }
+
+    /**
+     * match() should find out the same index as comparing names one by one
+     */
+    @Test
+    public void testMatch() throws IOException, ParseException {
+        NameSet nameSet = new NameSet("env:Envelope", "env:Body", "xmlns:env", "p:departureDate", "env:Header");
+        Assert.assertEquals(5, nameSet.size());
+        try {
+            new NameSet("a", "b", "a");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("soap.xml");
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+        int matched = 0;
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            int expected = NameSet.NOT_FOUND;
+            for (int i = 0; i < nameSet.size(); i++) {
+                if (parser.isMatch(nameSet.getName(i).getBytes())) {
+                    expected = i;
+                    break;
+                }
+            }
+            Assert.assertEquals(expected, parser.match(nameSet));
+            if (expected >= 0 && event != FastXmlParser.TEXT) {
+                matched++;
+            }
+        }
+        Assert.assertEquals(11, matched); // start tags, end tags and attribute names
+    }
+}
@@ -22,8 +22,13 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
 
 /**
  * Created by weager on 2016/07/06.
@@ -124,17 +129,103 @@ public class ParseUtilsTest {
         }
     }
 
+    @Test
+    public void testParseIntegerBoundary() throws NumberFormatException {
+        String[] longValues = {"0", "-0", "+7", " 123\n", "9223372036854775807", "-9223372036854775808",
+                "000000000000000000000123", "1234567812345678", "-998877665544332211"};
+        for (String value : longValues) {
+            byte[] testBytes = value.getBytes();
+            Assert.assertEquals(Long.parseLong(value.trim()), ParseUtils.parseLong(testBytes, 0, testBytes.length));
+        }
+        String[] intValues = {"0", "-7", " 32767 ", "2147483647", "-2147483648", "0000000000002147483647"};
+        for (String value : intValues) {
+            byte[] testBytes = value.getBytes();
+            Assert.assertEquals(Integer.parseInt(value.trim()), ParseUtils.parseInt(testBytes, 0, testBytes.length));
+        }
+        byte[] testBytes = "-32768".getBytes();
+        Assert.assertEquals(Short.MIN_VALUE, ParseUtils.parseShort(testBytes, 0, testBytes.length));
+
+        String[] invalidLongValues = {"", " ", "-", "9223372036854775808", "-9223372036854775809", "12345678x2345678", "1 2"};
+        for (String value : invalidLongValues) {
+            testBytes = value.getBytes();
+            try {
+                ParseUtils.parseLong(testBytes, 0, testBytes.length);
+                Assert.fail("should be invalid long: " + value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+        String[] invalidIntValues = {"+", "2147483648", "-2147483649", "9999999999", "12a"};
+        for (String value : invalidIntValues) {
+            testBytes = value.getBytes();
+            try {
+                ParseUtils.parseInt(testBytes, 0, testBytes.length);
+                Assert.fail("should be invalid int: " + value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+        String[] invalidShortValues = {"32768", "-32769", "65535"};
+        for (String value : invalidShortValues) {
+            testBytes = value.getBytes();
+            try {
+                ParseUtils.parseShort(testBytes, 0, testBytes.length);
+                Assert.fail("should be invalid short: " + value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void testParseDouble() throws NumberFormatException, ParseException {
         byte[] testBytes = "127.22".getBytes();
         Assert.assertEquals(127.22d, ParseUtils.parseDouble(testBytes, 0, testBytes.length), 0.00000000000001d);
     }
 
+    @Test
     public void testParseFloat() throws NumberFormatException, ParseException {
         byte[] testBytes = "127.22".getBytes();
         Assert.assertEquals(127.22f, ParseUtils.parseFloat(testBytes, 0, testBytes.length), 0.000000000000001f);
     }
 
+    @Test
+    public void testParseDecimalExactly() throws NumberFormatException, ParseException {
+        String[] values = {"0", "-0.0", " 12.34\n", "+7", ".5", "5.", "1E5", "1e-5", "121.4737010", "-1.2345E-10",
+                "9007199254740993", "1234567890123456789", "12345678901234567890123", "1.7976931348623157e308",
+                "1.7976931348623159e308", "4.9e-324", "2.4703282292062328e-324", "2.2250738585072011e-308",
+                "3.4028235e38", "1.4e-45", "1e-400", "1e400", "NaN", "-Infinity", "0x1p3", "1.5d"};
+        for (String value : values) {
+            byte[] testBytes = value.getBytes();
+            Assert.assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(ParseUtils.parseDouble(testBytes, 0, testBytes.length)));
+            Assert.assertEquals(value, Float.floatToIntBits(Float.parseFloat(value)),
+                    Float.floatToIntBits(ParseUtils.parseFloat(testBytes, 0, testBytes.length)));
+        }
+
+        Random random = new Random(20161228);
+        for (int i = 0; i < 20000; i++) {
+            String value = i % 2 == 0 ? Double.toString(Double.longBitsToDouble(random.nextLong()))
+                    : Float.toString(Float.intBitsToFloat(random.nextInt()));
+            byte[] testBytes = value.getBytes();
+            Assert.assertEquals(value, Double.doubleToLongBits(Double.parseDouble(value)),
+                    Double.doubleToLongBits(ParseUtils.parseDouble(testBytes, 0, testBytes.length)));
+            Assert.assertEquals(value, Float.floatToIntBits(Float.parseFloat(value)),
+                    Float.floatToIntBits(ParseUtils.parseFloat(testBytes, 0, testBytes.length)));
+        }
+
+        String[] invalidValues = {"", "  ", "abc", "1e", "-", "1.2.3", "1 2"};
+        for (String value : invalidValues) {
+            byte[] testBytes = value.getBytes();
+            try {
+                ParseUtils.parseDouble(testBytes, 0, testBytes.length);
+                Assert.fail("should be invalid: " + value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void testEntityReference() throws ParseException {
         byte[] testBytes = "&amp;c&#244;t&#233;".getBytes();
@@ -146,4 +237,138 @@ public class ParseUtilsTest {
         Assert.assertEquals("-&côté &amp;c&#244;t&#233; &côté", ParseUtils.parseStringWithDecoding(testBytes, 0, testBytes.length, charset));
         Assert.assertEquals("-&côté &amp;c&#244;t&#233; &côté", ParseUtils.parseString(testBytes, 0, testBytes.length));
     }
+
+    @Test
+    public void testSinglePassDecoding() throws ParseException, UnsupportedEncodingException {
+        Charset utf8 = Charset.forName("UTF-8");
+        String text = "汤姆克鲁兹 côté 𝄞<![CDATA[ 這裡&amp;𝄞 ]]>&lt;&#x1F600;";
+        byte[] testBytes = text.getBytes(utf8);
+        Assert.assertEquals("汤姆克鲁兹 côté 𝄞 這裡&amp;𝄞 <\uF600", ParseUtils.parseStringWithDecoding(testBytes, 0, testBytes.length, utf8));
+
+        testBytes = "côté&amp;".getBytes("ISO-8859-1");
+        Assert.assertEquals("côté&", ParseUtils.parseStringWithDecoding(testBytes, 0, testBytes.length, Charset.forName("ISO-8859-1")));
+        Assert.assertEquals("c\uFFFDt\uFFFD&", ParseUtils.parseStringWithDecoding(testBytes, 0, testBytes.length, Charset.forName("US-ASCII")));
+
+        // malformed and random bytes are decoded the same as String
+        Random random = new Random(20161226);
+        for (int i = 0; i < 2000; i++) {
+            testBytes = new byte[random.nextInt(32) + 1];
+            random.nextBytes(testBytes);
+            for (int j = 0; j < testBytes.length; j++) {
+                if (testBytes[j] == '&' || testBytes[j] == '<') {
+                    testBytes[j] = 'a';
+                }
+            }
+            Assert.assertEquals(new String(testBytes, utf8), ParseUtils.parseStringWithDecoding(testBytes, 0, testBytes.length, utf8));
+        }
+    }
+
+    @Test
+    public void testAsciiCompatible() {
+        Assert.assertTrue(ParseUtils.isAsciiCompatible(Charset.forName("UTF-8")));
+        Assert.assertTrue(ParseUtils.isAsciiCompatible(Charset.forName("ISO-8859-1")));
+        Assert.assertFalse(ParseUtils.isAsciiCompatible(Charset.forName("UTF-16LE")));
+        for (String name : new String[]{"GBK", "Shift_JIS", "ISO-2022-JP"}) {
+            if (Charset.isSupported(name)) {
+                Assert.assertEquals(name, !name.startsWith("ISO-2022"), ParseUtils.isAsciiCompatible(Charset.forName(name)));
+            }
+        }
+    }
+
+    @Test
+    public void testParseBooleanAndByte() throws NumberFormatException {
+        String[] trues = {"true", " 1", "true\n"};
+        for (String value : trues) {
+            byte[] testBytes = value.getBytes();
+            Assert.assertTrue(ParseUtils.parseBoolean(testBytes, 0, testBytes.length));
+        }
+        String[] falses = {"false", "0 ", "\tfalse"};
+        for (String value : falses) {
+            byte[] testBytes = value.getBytes();
+            Assert.assertFalse(ParseUtils.parseBoolean(testBytes, 0, testBytes.length));
+        }
+        String[] illegals = {"", "TRUE", "yes", "2", "fals"};
+        for (String value : illegals) {
+            byte[] testBytes = value.getBytes();
+            try {
+                ParseUtils.parseBoolean(testBytes, 0, testBytes.length);
+                Assert.fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        byte[] testBytes = "-128".getBytes();
+        Assert.assertEquals(Byte.MIN_VALUE, ParseUtils.parseByte(testBytes, 0, testBytes.length));
+        testBytes = "128".getBytes();
+        try {
+            ParseUtils.parseByte(testBytes, 0, testBytes.length);
+            Assert.fail();
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testParseBigDecimal() throws NumberFormatException {
+        String[] values = {"0", "-0.00", "123.456", "+1e3", "1.5E-7", ".5", "5.", "123456789012345678",
+                "1234567890123456789", "-98765432109876543210.0123456789", "1e2147483647", "0.000000000000000000001"};
+        for (String value : values) {
+            byte[] testBytes = (" " + value + " ").getBytes();
+            Assert.assertEquals(value, new BigDecimal(value), ParseUtils.parseBigDecimal(testBytes, 0, testBytes.length));
+        }
+        String[] illegals = {"", "-", ".", "1e", "1.2.3", "abc", "1e+"};
+        for (String value : illegals) {
+            byte[] testBytes = value.getBytes();
+            try {
+                ParseUtils.parseBigDecimal(testBytes, 0, testBytes.length);
+                Assert.fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseDate() throws NumberFormatException {
+        byte[] testBytes = "2016-12-29".getBytes();
+        Assert.assertEquals(17164, ParseUtils.parseEpochDay(testBytes, 0, testBytes.length));
+        testBytes = " 1969-12-31 ".getBytes();
+        Assert.assertEquals(-1, ParseUtils.parseEpochDay(testBytes, 0, testBytes.length));
+        testBytes = "2000-02-29".getBytes();
+        Assert.assertEquals(11016, ParseUtils.parseEpochDay(testBytes, 0, testBytes.length));
+
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(2016, Calendar.DECEMBER, 29, 8, 30, 15);
+        calendar.set(Calendar.MILLISECOND, 123);
+        long expected = calendar.getTimeInMillis();
+        String[] values = {"2016-12-29T08:30:15.123Z", "2016-12-29T08:30:15.123456", "2016-12-29T16:30:15.123+08:00",
+                "2016-12-29T03:00:15.123-0530", "2016-12-29t08:30:15,123z"};
+        for (String value : values) {
+            testBytes = value.getBytes();
+            Assert.assertEquals(value, expected, ParseUtils.parseEpochMillis(testBytes, 0, testBytes.length));
+        }
+        testBytes = "2016-12-29".getBytes();
+        Assert.assertEquals(17164L * 24 * 60 * 60 * 1000, ParseUtils.parseEpochMillis(testBytes, 0, testBytes.length));
+
+        // offset boundary is +-18:00
+        testBytes = "2016-12-29T18:00+18:00".getBytes();
+        Assert.assertEquals(17164L * 24 * 60 * 60 * 1000, ParseUtils.parseEpochMillis(testBytes, 0, testBytes.length));
+        testBytes = "2016-12-29T06:00-18:00".getBytes();
+        Assert.assertEquals(17165L * 24 * 60 * 60 * 1000, ParseUtils.parseEpochMillis(testBytes, 0, testBytes.length));
+
+        String[] illegals = {"", "2016-13-01", "2016-02-30", "2015-02-29", "2016-1-01", "2016-12-29T24:00",
+                "2016-12-29T08:60", "2016-12-29T08:30:15+19:00", "2016-12-29T08:30:15+18:01", "2016-12-29T08:30:15-18:59",
+                "2016-12-29T08:30:15+1801", "2016-12-29T08:30:15.", "2016-12-29 08:30"};
+        for (String value : illegals) {
+            testBytes = value.getBytes();
+            try {
+                ParseUtils.parseEpochMillis(testBytes, 0, testBytes.length);
+                Assert.fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.BufferPolicy;
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParser4Async;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Created by weager on 2017/01/08.
+ */
+public class Parser4AsyncTest {
+
+    /**
+     * get next event, feed bytes of document when the parser needs more bytes
+     */
+    private static int next(FastXmlParser4Async parser, ByteBuffer doc, int feedSize) throws ParseException {
+        int event;
+        while ((event = parser.next()) == FastXmlParser.INCOMPLETE) {
+            Assert.assertTrue(parser.needsInput());
+            if (doc.hasRemaining()) {
+                ByteBuffer bytes = doc.slice();
+                bytes.limit(Math.min(feedSize, bytes.remaining()));
+                doc.position(doc.position() + bytes.remaining());
+                parser.feed(bytes);
+            } else {
+                parser.endOfInput();
+            }
+        }
+        return event;
+    }
+
+    /**
+     * feed bytes in small pieces, events should be the same as parsing byte array
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testFeed() throws IOException, ParseException {
+        String[] fileNames = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+                "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+        for (String fileName : fileNames) {
+            byte[] bytes = FileLoaderUtils.loadClasspathFile(fileName);
+            for (int feedSize : new int[]{1, 7, 1000}) {
+                FastXmlParser expectParser = FastXmlFactory.newInstance(bytes);
+                FastXmlParser4Async parser = new FastXmlParser4Async();
+                parser.setInput(new BufferPolicy(256, 1.75, 1 << 20, 256), null);
+                ByteBuffer doc = ByteBuffer.wrap(bytes);
+                int event;
+                do {
+                    event = expectParser.next();
+                    Assert.assertEquals(fileName, event, next(parser, doc, feedSize));
+                    Assert.assertEquals(fileName, expectParser.getDepth(), parser.getDepth());
+                    Assert.assertTrue(fileName, Arrays.equals(expectParser.getRawBytes(), parser.getRawBytes()));
+                    if (event == FastXmlParser.TEXT || event == FastXmlParser.ATTRIBUTE_VALUE) {
+                        Assert.assertEquals(fileName, expectParser.getStringWithDecoding(), parser.getStringWithDecoding());
+                    }
+                } while (event != FastXmlParser.END_DOCUMENT);
+            }
+        }
+    }
+
+    /**
+     * a long text fed in small pieces is delivered in chunks, and the buffer never grows for it
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testTextChunked() throws IOException, ParseException {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><root><text>");
+        for (int i = 0; i < 2000; i++) {
+            sb.append("汤姆 &amp; <![CDATA[<b>]]> ").append(i);
+        }
+        sb.append("</text></root>");
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+        FastXmlParser expectParser = FastXmlFactory.newInstance(bytes);
+        while (expectParser.next() != FastXmlParser.TEXT) ;
+        String expected = expectParser.getStringWithDecoding();
+
+        FastXmlParser4Async parser = FastXmlFactory.newAsyncInstance(null);
+        parser.setTextChunked(true);
+        parser.setInput(new BufferPolicy(256, 1.75, 1 << 20, 256), null);
+        ByteBuffer doc = ByteBuffer.wrap(bytes);
+        StringBuilder text = new StringBuilder();
+        int event;
+        while ((event = next(parser, doc, 13)) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.TEXT) {
+                text.append(parser.getStringWithDecoding());
+            }
+        }
+        Assert.assertEquals(expected, text.toString());
+        Assert.assertEquals(256, parser.getPeakBufferSize());
+    }
+
+    /**
+     * tags can be skipped before their bytes are fed, and bytes should not be fed until parsed
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testSkipCurrentTag() throws IOException, ParseException {
+        byte[] bytes = "<a><b><c>1</c><c>2</c></b><d x=\"3\">4</d></a>".getBytes("UTF-8");
+        FastXmlParser4Async parser = FastXmlFactory.newAsyncInstance(null);
+        Assert.assertEquals(FastXmlParser.INCOMPLETE, parser.next());
+        parser.feed(bytes, 0, 7);
+        try {
+            parser.feed(bytes, 7, 1);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected, fed bytes have not been parsed
+        }
+        ByteBuffer doc = ByteBuffer.wrap(bytes, 7, bytes.length - 7);
+        StringBuilder sb = new StringBuilder();
+        int event;
+        while ((event = next(parser, doc, 3)) != FastXmlParser.END_DOCUMENT) {
+            if (event == FastXmlParser.START_TAG) {
+                if (parser.isMatch("b".getBytes())) {
+                    parser.skipCurrentTag();
+                } else {
+                    sb.append(parser.getString());
+                }
+            } else if (event == FastXmlParser.TEXT || event == FastXmlParser.ATTRIBUTE_VALUE) {
+                sb.append(parser.getString());
+            }
+        }
+        Assert.assertEquals("ad34", sb.toString());
+    }
+}
@@ -19,12 +19,15 @@ import com.github.fastxml.FastXmlFactory;
 import com.github.fastxml.FastXmlParser;
 import com.github.fastxml.exception.NumberFormatException;
 import com.github.fastxml.exception.ParseException;
+import com.github.fastxml.util.ParseUtils;
 import org.junit.Assert;
 import org.junit.Test;
 import util.FileLoaderUtils;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
  * Created by weager on 2016/06/07.
@@ -183,4 +186,68 @@ public class Parser4ByteArrayTest {
         }
     }
 
+    /**
+     * text and attribute value are scanned 8 bytes at a time, so put special bytes and non-ASCII bytes at every position
+     *
+     * @throws ParseException
+     */
+    @Test
+    public void testScanTextAndAttributeValue() throws ParseException, UnsupportedEncodingException {
+        for (int length = 0; length < 24; length++) {
+            for (int position = 0; position <= length; position++) {
+                String head = repeat('a', position);
+                String tail = repeat('b', length - position);
+                String[] values = {head + tail, head + "汤" + tail, head + "&amp;" + tail, head + "<![CDATA[]]>]>" + tail,
+                        head + "<![CDATA[" + tail + "]]>", head + "<![CDATA[克" + tail + "]]>", head + "'" + tail};
+                String[] expects = {head + tail, head + "汤" + tail, head + "&" + tail, head + "]>" + tail,
+                        head + tail, head + "克" + tail, head + "'" + tail};
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i].length() == 0) { // no text event
+                        continue;
+                    }
+                    String expect = expects[i].length() == 0 ? null : expects[i];
+                    String attributeValue = values[i].replace("<", "&lt;").replace("&lt;!", "x!").replace("]]>", "]]");
+                    byte[] doc = ("<root a=\"" + attributeValue + "\">" + values[i] + "</root>").getBytes("UTF-8");
+                    FastXmlParser parser = FastXmlFactory.newInstance(doc, Charset.forName("UTF-8"));
+                    parser.next(); // start document
+                    parser.next(); // root
+                    parser.next(); // attribute name
+                    Assert.assertEquals(FastXmlParser.ATTRIBUTE_VALUE, parser.next());
+                    String attribute = new String(doc, parser.getCurrentIndex(), parser.getCurrentBytesLength(), "UTF-8");
+                    Assert.assertEquals(ParseUtils.parseStringWithDecoding(doc, parser.getCurrentIndex(),
+                            parser.getCurrentBytesLength(), Charset.forName("UTF-8")), parser.getStringWithDecoding());
+                    Assert.assertEquals(attributeValue, attribute);
+                    Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+                    Assert.assertEquals(expect, parser.getStringWithDecoding());
+                    Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * 7-bit stateful charset: every byte is ascii, but tokens still have to be decoded
+     *
+     * @throws ParseException
+     */
+    @Test
+    public void testStatefulCharset() throws ParseException {
+        if (!Charset.isSupported("ISO-2022-JP")) {
+            return;
+        }
+        Charset charset = Charset.forName("ISO-2022-JP");
+        byte[] bytes = "<a>日本</a>".getBytes(charset);
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes, charset);
+        Assert.assertEquals(FastXmlParser.START_DOCUMENT, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertEquals("日本", parser.getStringWithDecoding());
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+    }
+
+    private String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
 }
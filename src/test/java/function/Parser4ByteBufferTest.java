@@ -0,0 +1,77 @@
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParser4ByteBuffer;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Created by weager on 2016/12/22.
+ */
+public class Parser4ByteBufferTest {
+
+    private static final String[] FILE_NAMES = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+            "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+
+    /**
+     * heap ByteBuffer which is a slice of a bigger array should be parsed in place
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testHeapByteBuffer() throws IOException, ParseException {
+        for (String fileName : FILE_NAMES) {
+            byte[] bytes = FileLoaderUtils.loadClasspathFile(fileName);
+            byte[] array = new byte[bytes.length + 20];
+            Arrays.fill(array, (byte) '<');
+            System.arraycopy(bytes, 0, array, 10, bytes.length);
+            ByteBuffer buffer = ByteBuffer.wrap(array, 5, bytes.length + 10);
+            buffer.position(10);
+            buffer = buffer.slice();
+            buffer.limit(bytes.length);
+            FastXmlParser parser = FastXmlFactory.newInstance(buffer);
+            Assert.assertSame(array, parser.getDocument());
+            assertSameEvents(fileName, bytes, parser);
+            Assert.assertEquals(0, buffer.position());
+        }
+    }
+
+    /**
+     * direct ByteBuffer should be copied into buffer block by block
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testDirectByteBuffer() throws IOException, ParseException {
+        for (String fileName : FILE_NAMES) {
+            byte[] bytes = FileLoaderUtils.loadClasspathFile(fileName);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes);
+            buffer.flip();
+            FastXmlParser4ByteBuffer parser = new FastXmlParser4ByteBuffer();
+            parser.setInput(buffer, 1024, null);
+            assertSameEvents(fileName, bytes, parser);
+            Assert.assertEquals(0, buffer.position());
+        }
+    }
+
+    private void assertSameEvents(String fileName, byte[] bytes, FastXmlParser parser) throws ParseException {
+        FastXmlParser expectParser = FastXmlFactory.newInstance(bytes);
+        int event;
+        do {
+            event = expectParser.next();
+            Assert.assertEquals(fileName, event, parser.next());
+            Assert.assertEquals(fileName, expectParser.getDepth(), parser.getDepth());
+            Assert.assertTrue(fileName, Arrays.equals(expectParser.getRawBytes(), parser.getRawBytes()));
+        } while (event != FastXmlParser.END_DOCUMENT);
+    }
+}
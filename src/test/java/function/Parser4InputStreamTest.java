@@ -15,17 +15,26 @@
  */
 package function;
 
+import com.github.fastxml.AbstractFastXmlParser;
+import com.github.fastxml.BufferPolicy;
 import com.github.fastxml.FastXmlFactory;
 import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParser4InputStream;
+import com.github.fastxml.exception.BufferLimitException;
 import com.github.fastxml.exception.NumberFormatException;
 import com.github.fastxml.exception.ParseException;
 import org.junit.Assert;
 import org.junit.Test;
 import util.FileLoaderUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Created by weager on 2016/06/07.
@@ -104,6 +113,64 @@ public class Parser4InputStreamTest {
         }
     }
 
+    /**
+     * skipCurrentTag() scans markup in the subtree: quoted '>', comments, CDATA blocks and processing instructions,
+     * and buffer never grows for a large subtree
+     */
+    @Test
+    public void testSkipCurrentTagByScanning() throws IOException, ParseException {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            items.append("<item id=\"").append(i).append("\" note='a > b'><![CDATA[</skip>]]></item>");
+        }
+        String doc = "<doc><skip a=\"</skip>\"><!-- </skip> --><?pi </skip>?>" + items + "<empty/></skip>"
+                + "<skip/><skip a=\"1\"/><keep>1</keep><skip><x></x></skip><keep k=\"2\">2</keep></doc>";
+        BufferPolicy policy = new BufferPolicy(256, 2, Integer.MAX_VALUE, 256);
+        FastXmlParser4InputStream parser = new FastXmlParser4InputStream();
+        parser.setInput(new ByteArrayInputStream(doc.getBytes()), policy, null);
+        StringBuilder sb = new StringBuilder();
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG && parser.isMatch("skip".getBytes())) {
+                parser.skipCurrentTag();
+                Assert.assertEquals(1, parser.getDepth());
+                sb.append(parser.getCurrentEvent() == FastXmlParser.END_TAG ? "s" : "e");
+            } else if (event == FastXmlParser.TEXT) {
+                sb.append(parser.getString());
+            }
+        }
+        Assert.assertEquals("see1s2", sb.toString());
+        Assert.assertEquals(256, parser.getPeakBufferSize());
+    }
+
+    /**
+     * skipCurrentTag() over a stream which returns a few bytes for each read, markers may be split by reads
+     */
+    @Test
+    public void testSkipCurrentTagByShortReads() throws IOException, ParseException {
+        StringBuilder sb = new StringBuilder("<root><a>");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("<b>xxxxxxxxxxxxxxxxx<![CDATA[ yy ]]></b>");
+        }
+        sb.append("</a><c>1</c></root>");
+        InputStream is = new FilterInputStream(new ByteArrayInputStream(sb.toString().getBytes())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        FastXmlParser parser = FastXmlFactory.newInstance(is, 64);
+        StringBuilder result = new StringBuilder();
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG && parser.isMatch("a".getBytes())) {
+                parser.skipCurrentTag();
+                Assert.assertEquals(1, parser.getDepth());
+            } else if (event == FastXmlParser.TEXT) {
+                result.append(parser.getString());
+            }
+        }
+        Assert.assertEquals("1", result.toString());
+    }
+
     /**
      * parse text to number
      *
@@ -184,4 +251,259 @@ public class Parser4InputStreamTest {
         }
     }
 
+    /**
+     * buffer should slide over a large document without growing, and current token should be read from buffer directly
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testSlidingBuffer() throws IOException, ParseException {
+        StringBuilder sb = new StringBuilder("<items>");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<item id=\"").append(i).append("\">text").append(i).append("</item>");
+        }
+        sb.append("</items>");
+        FastXmlParser parser = FastXmlFactory.newInstance(new ByteArrayInputStream(sb.toString().getBytes()), 1024, null);
+        int count = 0;
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.TEXT) {
+                String text = new String(parser.getDocument(), parser.getCurrentIndex(), parser.getCurrentBytesLength());
+                Assert.assertEquals("text" + count, text);
+                count++;
+            }
+            Assert.assertEquals(1024, parser.getDocument().length);
+        }
+        Assert.assertEquals(10000, count);
+    }
+
+    /**
+     * base64 and hex text should be decoded from buffer directly, whitespace and CDATA markers are skipped
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testBinaryText() throws IOException, ParseException {
+        Random random = new Random(20161230);
+        byte[] data = new byte[20000];
+        random.nextBytes(data);
+        String base64 = base64(data);
+        StringBuilder sb = new StringBuilder("<attachments>");
+        // wrapped every 76 chars like MIME
+        sb.append("<a>\n");
+        for (int i = 0; i < base64.length(); i += 76) {
+            sb.append(base64, i, Math.min(i + 76, base64.length())).append("\r\n");
+        }
+        sb.append("</a>");
+        // CDATA blocks, unpadded tail and entity reference
+        sb.append("<a><![CDATA[").append(base64, 0, 100).append("]]>").append(base64, 100, 2000).append("</a>");
+        sb.append("<a>").append(base64(new byte[]{1, 2, 3, 4}).replace("=", "")).append("</a>");
+        sb.append("<a>&#32;").append(base64(new byte[]{5, 6})).append("</a>");
+        sb.append("<h>0aFf 7<![CDATA[e]]></h>");
+        sb.append("<bad>QU!=</bad>");
+        sb.append("</attachments>");
+        FastXmlParser parser = FastXmlFactory.newInstance(new ByteArrayInputStream(sb.toString().getBytes()), 1024, null);
+
+        Assert.assertEquals(FastXmlParser.START_DOCUMENT, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertArrayEquals(data, parser.getBase64Bytes());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assert.assertEquals(data.length, parser.readBase64(out));
+        Assert.assertArrayEquals(data, out.toByteArray());
+
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertArrayEquals(Arrays.copyOf(data, 1500), parser.getBase64Bytes());
+
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertArrayEquals(new byte[]{1, 2, 3, 4}, parser.getBase64Bytes());
+
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertArrayEquals(new byte[]{5, 6}, parser.getBase64Bytes());
+
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        Assert.assertArrayEquals(new byte[]{0x0a, (byte) 0xff, 0x7e}, parser.getHexBytes());
+        out.reset();
+        Assert.assertEquals(3, parser.readHex(out));
+        Assert.assertArrayEquals(new byte[]{0x0a, (byte) 0xff, 0x7e}, out.toByteArray());
+
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals(FastXmlParser.TEXT, parser.next());
+        try {
+            parser.getBase64Bytes();
+            Assert.fail();
+        } catch (ParseException e) {
+            Assert.assertTrue(e.getRow() > 0);
+        }
+    }
+
+    /**
+     * long text should be delivered in chunks without growing buffer, and chunks should be decoded independently
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testChunkedText() throws IOException, ParseException {
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("汤姆&amp;côté ").append(i);
+            expected.append("汤姆&côté ").append(i);
+            if (i % 500 == 0) { // long CDATA block, which contains markup
+                for (int j = 0; j < 300; j++) {
+                    text.append("<![CDATA[<a>&amp;汤]]]>");
+                    expected.append("<a>&amp;汤]");
+                }
+            }
+        }
+        Random random = new Random(20161230);
+        byte[] data = new byte[30000];
+        random.nextBytes(data);
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><doc><text>" + text + "</text><short>abc</short>"
+                + "<b><![CDATA[" + base64(data) + "]]></b></doc>";
+
+        FastXmlParser parser = FastXmlFactory.newInstance(new ByteArrayInputStream(xml.getBytes("UTF-8")), 1024, null);
+        ((AbstractFastXmlParser) parser).setTextChunked(true);
+        StringBuilder actual = new StringBuilder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int chunks = 0;
+        String tagName = null;
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.START_TAG) {
+                tagName = parser.getString();
+            } else if (event == FastXmlParser.TEXT) {
+                if ("text".equals(tagName)) {
+                    actual.append(parser.getStringWithDecoding());
+                    chunks++;
+                    if (!parser.hasMoreText()) {
+                        Assert.assertEquals(FastXmlParser.END_TAG, parser.getNextEvent());
+                    }
+                } else if ("short".equals(tagName)) {
+                    Assert.assertFalse(parser.hasMoreText());
+                    Assert.assertEquals("abc", parser.getString());
+                } else {
+                    parser.readBase64(out);
+                }
+            }
+            Assert.assertEquals(1024, parser.getDocument().length);
+        }
+        Assert.assertEquals(expected.toString(), actual.toString());
+        Assert.assertTrue(chunks > 100);
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    /**
+     * '&' in CDATA block right before the end of chunk is not an entity reference, chunk should not end inside the block
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testChunkedTextAfterCDATA() throws IOException, ParseException {
+        for (int padding = 400; padding < 520; padding++) {
+            String text = repeat('x', padding) + "<![CDATA[ a<b&c ]]>" + repeat('y', 1000);
+            String xml = "<doc>" + text + "</doc>";
+            FastXmlParser parser = FastXmlFactory.newInstance(new ByteArrayInputStream(xml.getBytes()), 1024, null);
+            ((AbstractFastXmlParser) parser).setTextChunked(true);
+            StringBuilder actual = new StringBuilder();
+            for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+                String chunk = event == FastXmlParser.TEXT ? parser.getStringWithDecoding() : null;
+                if (chunk != null) { // empty chunk is null
+                    actual.append(chunk);
+                }
+            }
+            Assert.assertEquals(repeat('x', padding) + " a<b&c " + repeat('y', 1000), actual.toString());
+        }
+    }
+
+    /**
+     * buffer should grow by buffer policy, stop at max size, and shrink back for next document
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testBufferPolicy() throws IOException, ParseException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append("0123456789");
+        }
+        byte[] doc = ("<doc><text>" + text + "</text></doc>").getBytes();
+        BufferPolicy policy = new BufferPolicy(1024, 2, 4096, 2048);
+        FastXmlParser4InputStream parser = new FastXmlParser4InputStream();
+        parser.setInput(new ByteArrayInputStream(doc), policy, null);
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.TEXT) {
+                Assert.assertEquals(text.toString(), parser.getString());
+            }
+        }
+        Assert.assertEquals(4096, parser.getPeakBufferSize());
+
+        // buffer larger than retained size is not kept for next document
+        parser.setInput(new ByteArrayInputStream("<doc>abc</doc>".getBytes()), null);
+        while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            Assert.assertEquals(1024, parser.getDocument().length);
+        }
+        Assert.assertEquals(1024, parser.getPeakBufferSize());
+
+        // token larger than max size
+        doc = ("<doc><text>" + text + text + "</text></doc>").getBytes();
+        parser.setInput(new ByteArrayInputStream(doc), null);
+        try {
+            while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            }
+            Assert.fail();
+        } catch (BufferLimitException e) {
+            Assert.assertEquals(4096, e.getMaxBufferSize());
+        }
+
+        // but chunked text can be longer than max size
+        parser.setTextChunked(true);
+        parser.setInput(new ByteArrayInputStream(doc), null);
+        StringBuilder actual = new StringBuilder();
+        for (int event = parser.next(); event != FastXmlParser.END_DOCUMENT; event = parser.next()) {
+            if (event == FastXmlParser.TEXT) {
+                actual.append(parser.getString());
+            }
+        }
+        Assert.assertEquals(text.toString() + text, actual.toString());
+        Assert.assertEquals(1024, parser.getPeakBufferSize());
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static String base64(byte[] data) {
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < data.length; i += 3) {
+            int remaining = Math.min(3, data.length - i);
+            int bits = (data[i] & 0xFF) << 16;
+            if (remaining > 1) {
+                bits |= (data[i + 1] & 0xFF) << 8;
+            }
+            if (remaining > 2) {
+                bits |= data[i + 2] & 0xFF;
+            }
+            for (int j = 0; j < 4; j++) {
+                sb.append(j <= remaining ? alphabet.charAt(bits >> (18 - 6 * j) & 0x3F) : '=');
+            }
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,59 @@
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.FastXmlParser4MappedFile;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Created by weager on 2016/12/20.
+ */
+public class Parser4MappedFileTest {
+
+    /**
+     * test xml declaration and check encoding
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testXmlDeclare() throws IOException, ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(FileLoaderUtils.getFile("test2.xml"));
+        if (parser.next() == FastXmlParser.START_DOCUMENT) {
+            Charset charset = parser.getEncode();
+            Assert.assertTrue(charset != null && charset.equals(Charset.forName("utf-8")));
+        }
+        ((FastXmlParser4MappedFile) parser).close();
+    }
+
+    /**
+     * map file by small windows, tokens across windows should be the same as parsing byte array
+     *
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Test
+    public void testTraverseXmlWithSmallWindows() throws IOException, ParseException {
+        String[] fileNames = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+                "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+        for (String fileName : fileNames) {
+            FastXmlParser expectParser = FastXmlFactory.newInstance(FileLoaderUtils.loadClasspathFile(fileName));
+            FastXmlParser4MappedFile parser = new FastXmlParser4MappedFile();
+            parser.setInput(FileLoaderUtils.getFile(fileName), 1024, 1000, null);
+            int event;
+            do {
+                event = expectParser.next();
+                Assert.assertEquals(fileName, event, parser.next());
+                Assert.assertEquals(fileName, expectParser.getDepth(), parser.getDepth());
+                Assert.assertTrue(fileName, Arrays.equals(expectParser.getRawBytes(), parser.getRawBytes()));
+            } while (event != FastXmlParser.END_DOCUMENT);
+        }
+    }
+}
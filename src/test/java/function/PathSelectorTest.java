@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016 FastXml author(https://github.com/fastxml/fastxml)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package function;
+
+import com.github.fastxml.FastXmlFactory;
+import com.github.fastxml.FastXmlParser;
+import com.github.fastxml.PathCallback;
+import com.github.fastxml.PathSelector;
+import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import util.FileLoaderUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by weager on 2017/01/03.
+ */
+public class PathSelectorTest {
+
+    /**
+     * child, descendant and positional steps on a large document
+     */
+    @Test
+    public void testSelect() throws IOException, ParseException {
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("book.xml");
+        PathSelector selector = PathSelector.compile("//ID", "/Order/Manifest/Item[2]/Title/text()",
+                "/Order/Receipt/Total", "/Order/Customer/*");
+        final List<List<String>> values = new ArrayList<List<String>>();
+        for (int i = 0; i < selector.size(); i++) {
+            values.add(new ArrayList<String>());
+        }
+        int count = selector.select(FastXmlFactory.newInstance(bytes), new PathCallback() {
+            public boolean onMatch(int pathIndex, FastXmlParser parser) throws ParseException {
+                values.get(pathIndex).add(parser.getStringWithDecoding().trim());
+                return true;
+            }
+        });
+        Assert.assertEquals(125 + 25 + 6 + 2, count);
+        Assert.assertEquals(125, values.get(0).size());
+        Assert.assertEquals("209", values.get(0).get(0));
+        Assert.assertEquals("210", values.get(0).get(124));
+        Assert.assertEquals(25, values.get(1).size());
+        for (String title : values.get(1)) {
+            Assert.assertEquals("100% Pure: Making Cross Platform Deployment a Reality", title);
+        }
+        Assert.assertEquals("$58.18", values.get(2).get(0));
+        Assert.assertEquals("[Bill Buckram, 234 234 234 234]", values.get(3).toString());
+    }
+
+    /**
+     * attributes are selected, tags which can not be selected are skipped, including empty tags
+     */
+    @Test
+    public void testSelectAttribute() throws ParseException {
+        String xml = "<order no=\"7\"><skip a=\"1\"/><item id=\"1\" sku=\"a\"><price>3</price></item>"
+                + "<item id=\"2\"/><note><item id=\"x\"/></note><item id=\"3\" sku=\"c\">text</item></order>";
+        PathSelector selector = PathSelector.compile("/order/item/@id", "/order/item[3]/@*", "/order/@no",
+                "//item[1]/@id", "/order/item/price");
+        final StringBuilder sb = new StringBuilder();
+        selector.select(FastXmlFactory.newInstance(xml.getBytes()), new PathCallback() {
+            public boolean onMatch(int pathIndex, FastXmlParser parser) throws ParseException {
+                sb.append(pathIndex).append('=').append(parser.getString()).append(' ');
+                return true;
+            }
+        });
+        Assert.assertEquals("2=7 0=1 3=1 4=3 0=2 3=x 0=3 1=3 1=c ", sb.toString());
+
+        // walking inside the document selects descendants of current element
+        FastXmlParser parser = FastXmlFactory.newInstance(xml.getBytes());
+        while (parser.next() != FastXmlParser.START_TAG || !parser.isMatch("note".getBytes())) {
+            // find out note
+        }
+        sb.setLength(0);
+        Assert.assertEquals(1, PathSelector.compile("/item/@id", "/item/text()").select(parser, new PathCallback() {
+            public boolean onMatch(int pathIndex, FastXmlParser parser) throws ParseException {
+                sb.append(parser.getString());
+                return true;
+            }
+        }));
+        Assert.assertEquals("x", sb.toString());
+        Assert.assertEquals(FastXmlParser.END_TAG, parser.getCurrentEvent());
+        Assert.assertEquals(FastXmlParser.START_TAG, parser.next());
+        Assert.assertEquals("item", parser.getString());
+    }
+
+    /**
+     * selectFirst() stops when all paths get their values
+     */
+    @Test
+    public void testSelectFirst() throws IOException, ParseException {
+        byte[] bytes = FileLoaderUtils.loadClasspathFile("order.xml");
+        FastXmlParser parser = FastXmlFactory.newInstance(bytes);
+        String[] result = new String[3];
+        PathSelector selector = PathSelector.compile("/Order/cat:ID", "//cat:Address/cat:Street",
+                "/Order/cat:LineExtensionTotalAmount/@currencyID");
+        Assert.assertEquals(3, selector.selectFirst(parser, result));
+        Assert.assertEquals("20031234-1", result[0]);
+        Assert.assertEquals("413 Spring St", result[1]);
+        Assert.assertEquals("USD", result[2]);
+        Assert.assertNotEquals(FastXmlParser.END_DOCUMENT, parser.getCurrentEvent());
+
+        Assert.assertEquals(0, PathSelector.compile("/Order/none").selectFirst(FastXmlFactory.newInstance(bytes), result));
+        Assert.assertNull(result[0]);
+
+        // empty first value is kept as "", and the path is not counted again
+        String[] values = new String[2];
+        bytes = "<r><a x=\"\"/><a x=\"2\"/><b></b></r>".getBytes();
+        Assert.assertEquals(1, PathSelector.compile("/r/a/@x", "/r/b").selectFirst(FastXmlFactory.newInstance(bytes), values));
+        Assert.assertEquals("", values[0]);
+        Assert.assertNull(values[1]);
+
+        String[] invalidPaths = {"order", "/", "/a//", "/@id", "/a/@id/b", "//a//text()", "/a[0]", "/a[x]"};
+        for (String path : invalidPaths) {
+            try {
+                PathSelector.compile(path);
+                Assert.fail(path);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
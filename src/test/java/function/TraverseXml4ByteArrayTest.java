@@ -18,10 +18,12 @@ package function;
 import com.github.fastxml.FastXmlFactory;
 import com.github.fastxml.FastXmlParser;
 import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
 import org.junit.Test;
 import util.FileLoaderUtils;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
 /**
  * test traverse all event in xml document
@@ -44,6 +46,47 @@ public class TraverseXml4ByteArrayTest {
         traverseXml("test2-no-declaration.xml", printInfo);
     }
 
+    @Test
+    public void testTextAccess() throws IOException, ParseException {
+        String[] fileNames = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+                "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+        for (String fileName : fileNames) {
+            checkTextAccess(FileLoaderUtils.loadClasspathFile(fileName));
+        }
+        checkTextAccess(("<root a=\"x&amp;y&#233;\">  汤姆<![CDATA[<b>&amp;</b>]]>&lt;-&gt;</root>").getBytes("UTF-8"));
+    }
+
+    private void checkTextAccess(byte[] doc) throws ParseException {
+        FastXmlParser parser = FastXmlFactory.newInstance(doc);
+        CharSequence text = null;
+        char[] dest = new char[doc.length + 2];
+        StringBuilder sb = new StringBuilder();
+        StringWriter writer = new StringWriter();
+        while (parser.next() != FastXmlParser.END_DOCUMENT) {
+            String expect = parser.getStringWithDecoding();
+            expect = expect == null ? "" : expect;
+
+            CharSequence cs = parser.getCharSequence();
+            if (text != null) {
+                Assert.assertSame(text, cs); // reused
+            }
+            text = cs;
+            Assert.assertEquals(expect, cs.toString());
+            Assert.assertSame(cs, parser.getCharSequence()); // decoded only once
+
+            int length = parser.getText(dest, 2);
+            Assert.assertEquals(expect, new String(dest, 2, length));
+
+            sb.setLength(0);
+            parser.appendTo(sb);
+            Assert.assertEquals(expect, sb.toString());
+
+            writer.getBuffer().setLength(0);
+            parser.appendTo(writer);
+            Assert.assertEquals(expect, writer.toString());
+        }
+    }
+
     private void traverseXml(String fileName, boolean printInfo) throws ParseException, IOException {
         byte[] doc = FileLoaderUtils.loadClasspathFile(fileName);
         if (doc == null || doc.length == 0) {
@@ -18,11 +18,14 @@ package function;
 import com.github.fastxml.FastXmlFactory;
 import com.github.fastxml.FastXmlParser;
 import com.github.fastxml.exception.ParseException;
+import org.junit.Assert;
 import org.junit.Test;
 import util.FileLoaderUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 /**
  * test traverse all event in xml document
@@ -45,6 +48,41 @@ public class TraverseXml4InputStreamTest {
         traverseXml("test2-no-declaration.xml", printInfo);
     }
 
+    /**
+     * input stream which returns only a few bytes for each read, the parser should get the same events as byte array
+     */
+    @Test
+    public void testTraverseXmlWithSmallBlocks() throws IOException, ParseException {
+        String[] fileNames = {"bioinfo.xml", "book.xml", "form.xml", "nav.xml", "order.xml", "soap.xml",
+                "test1.xml", "test1-gbk.xml", "test2.xml", "test2-no-declaration.xml"};
+        for (String fileName : fileNames) {
+            byte[] bytes = FileLoaderUtils.loadClasspathFile(fileName);
+            FastXmlParser expectParser = FastXmlFactory.newInstance(bytes);
+            FastXmlParser parser = FastXmlFactory.newInstance(new SmallBlockInputStream(bytes), 1024, null);
+            int event;
+            do {
+                event = expectParser.next();
+                Assert.assertEquals(fileName, event, parser.next());
+                Assert.assertEquals(fileName, expectParser.getDepth(), parser.getDepth());
+                Assert.assertTrue(fileName, Arrays.equals(expectParser.getRawBytes(), parser.getRawBytes()));
+            } while (event != FastXmlParser.END_DOCUMENT);
+        }
+    }
+
+    private static class SmallBlockInputStream extends ByteArrayInputStream {
+        private int blockSize = 1;
+
+        SmallBlockInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            blockSize = blockSize % 7 + 1;
+            return super.read(b, off, Math.min(len, blockSize));
+        }
+    }
+
     private void traverseXml(String fileName, boolean printInfo) throws ParseException, IOException {
         InputStream is = FileLoaderUtils.getInputStream(fileName);
 
@@ -15,8 +15,10 @@
  */
 package util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 
 /**
  * Created by weager on 2016/07/12.
@@ -49,4 +51,16 @@ public class FileLoaderUtils {
         }
         return classLoader.getResourceAsStream(fileName);
     }
+
+    public static File getFile(String fileName) throws IOException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = FileLoaderUtils.class.getClassLoader();
+        }
+        try {
+            return new File(classLoader.getResource(fileName).toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
 }